@@ -0,0 +1,110 @@
+package grid;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The AntVi VectorPheromoneKernel class - A PheromoneKernel using the Vector
+ * API, which processes as many values per instruction as the preferred vector
+ * size of the CPU allows (e.g. 4 doubles with AVX2, 8 with AVX-512). The
+ * results are the same as the ones of the scalar kernel. Requires the
+ * jdk.incubator.vector module at compile and run time, so it lives in the
+ * optional source root src-vector and is only ever loaded by reflection.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+final class VectorPheromoneKernel extends PheromoneKernel {
+
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+	@Override
+	String getName() {
+		return "vector (" + DOUBLES.vectorBitSize() + " bit)";
+	}
+
+	@Override
+	boolean evaporate(double[] values, double amount) {
+		DoubleVector evaporation = DoubleVector.broadcast(DOUBLES, amount);
+		// Tracks the highest value per lane to tell whether anything is left
+		DoubleVector highest = DoubleVector.zero(DOUBLES);
+
+		int i = 0;
+		for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+			DoubleVector value = DoubleVector.fromArray(DOUBLES, values, i).sub(evaporation).max(0);
+			value.intoArray(values, i);
+			highest = highest.max(value);
+		}
+		boolean remaining = highest.reduceLanes(VectorOperators.MAX) > 0;
+
+		// Remaining values that don't fill a whole vector
+		for (; i < values.length; i++) {
+			double value = values[i] - amount;
+			if (value > 0) {
+				values[i] = value;
+				remaining = true;
+			} else {
+				values[i] = 0;
+			}
+		}
+		return remaining;
+	}
+
+	@Override
+	boolean evaporate(float[] values, float amount) {
+		FloatVector evaporation = FloatVector.broadcast(FLOATS, amount);
+		FloatVector highest = FloatVector.zero(FLOATS);
+
+		int i = 0;
+		for (int bound = FLOATS.loopBound(values.length); i < bound; i += FLOATS.length()) {
+			FloatVector value = FloatVector.fromArray(FLOATS, values, i).sub(evaporation).max(0);
+			value.intoArray(values, i);
+			highest = highest.max(value);
+		}
+		boolean remaining = highest.reduceLanes(VectorOperators.MAX) > 0;
+
+		for (; i < values.length; i++) {
+			float value = values[i] - amount;
+			if (value > 0) {
+				values[i] = value;
+				remaining = true;
+			} else {
+				values[i] = 0;
+			}
+		}
+		return remaining;
+	}
+
+	@Override
+	void clamp(double[] values, double max) {
+		DoubleVector maximum = DoubleVector.broadcast(DOUBLES, max);
+
+		int i = 0;
+		for (int bound = DOUBLES.loopBound(values.length); i < bound; i += DOUBLES.length()) {
+			DoubleVector.fromArray(DOUBLES, values, i).min(maximum).intoArray(values, i);
+		}
+		for (; i < values.length; i++) {
+			if (values[i] > max) {
+				values[i] = max;
+			}
+		}
+	}
+
+	@Override
+	void clamp(float[] values, float max) {
+		FloatVector maximum = FloatVector.broadcast(FLOATS, max);
+
+		int i = 0;
+		for (int bound = FLOATS.loopBound(values.length); i < bound; i += FLOATS.length()) {
+			FloatVector.fromArray(FLOATS, values, i).min(maximum).intoArray(values, i);
+		}
+		for (; i < values.length; i++) {
+			if (values[i] > max) {
+				values[i] = max;
+			}
+		}
+	}
+}
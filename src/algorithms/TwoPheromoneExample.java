@@ -1,150 +1,156 @@
 package algorithms;
 
-import java.util.List;
 import java.util.Random;
 
 import controller.Controller;
-import grid.FoodSource;
 import grid.Grid;
 import grid.GridNode;
-import grid.Nest;
+import grid.PheromoneField;
+import grid.Terrain;
 import model.Ant;
+import model.DepositBuffer;
 import model.Model;
 
 /**
- * This is an example implementation of an ACO system.
+ * This is an example implementation of an ACO system. Every ant only changes its
+ * own state and records its deposits, so ants can be processed in parallel.
  * 
  * @author Max Ehringhausen
  *
  */
 public class TwoPheromoneExample extends Model {
 
-	private static final Random random = new Random();
-
 	private static final int PHEROMONE_ONE = 0;
 	private static final int PHEROMONE_TWO = 1;
+	private static final int PHEROMONE_CHANNELS = 2;
 
 	public TwoPheromoneExample(Controller controller, Grid grid) {
 		super(controller, grid);
+
+		// Only two pheromones are used, don't store more than that
+		grid.setPheromoneChannels(PHEROMONE_CHANNELS);
 	}
 
 	@Override
 	public void generateSolutions() {
+		processAnts(getAnts(), (ant, deposits) -> generateSolution(ant));
+	}
 
-		for (Ant ant : getAnts()) {
+	/**
+	 * Finds a move target for a single ant and moves it.
+	 * 
+	 * @param ant the ant to move
+	 */
+	private void generateSolution(Ant ant) {
 
-			List<GridNode> lookingAt;
+		int candidates;
 
-			// If a Nest or FoodSource has just been visited, look around
-			if (ant.getStepsWalked() == 1) {
-				lookingAt = ant.getSurroundingNodes();
+		// If a Nest or FoodSource has just been visited, look around
+		if (ant.getStepsWalked() == 1) {
+			candidates = ant.senseSurrounding();
 
-				// Otherwise just look ahead
-			} else {
-				lookingAt = ant.getThreeInFront();
-			}
+			// Otherwise just look ahead
+		} else {
+			candidates = ant.senseThreeInFront();
+		}
 
-			// Ant is in a dead-end or stuck - let her check more of her surroundings
-			if (lookingAt.isEmpty()) {
-				lookingAt = ant.getFiveInFront();
-				if (lookingAt.isEmpty()) {
-					lookingAt = ant.getSurroundingNodes();
-				}
+		// Ant is in a dead-end or stuck - let her check more of her surroundings
+		if (candidates == 0) {
+			candidates = ant.senseFiveInFront();
+			if (candidates == 0) {
+				candidates = ant.senseSurrounding();
 			}
+		}
 
-			// Randomly move based on a percent chance
-			if (random.nextDouble() < getRandomMoveChance()) {
-				if (!lookingAt.isEmpty()) {
-					ant.moveTo(lookingAt.get(random.nextInt(lookingAt.size())));
-					ant.increaseStepsWalked();
-				}
-				continue;
+		// Randomly move based on a percent chance
+		Random random = ant.getRandom();
+		if (random.nextDouble() < getRandomMoveChance()) {
+			if (candidates > 0) {
+				ant.moveTo(ant.getCandidate(random.nextInt(candidates)));
+				ant.increaseStepsWalked();
 			}
+			return;
+		}
 
-			GridNode bestChoice = null;
-			if (ant.isCarryingFood()) {
-
-				// Probably move to node with highest pheromone one
-				bestChoice = ant.getNodeByProbablility(PHEROMONE_ONE, lookingAt, random, true, true, 1.1D);
+		int bestChoice;
+		if (ant.isCarryingFood()) {
 
-			} else {
+			// Probably move to node with highest pheromone one
+			bestChoice = ant.chooseCandidateByProbability(PHEROMONE_ONE, random, true, true, 1.1D);
 
-				// Probably move to node with highest pheromone two
-				bestChoice = ant.getNodeByProbablility(PHEROMONE_TWO, lookingAt, random, true, true, 1.1D);
-			}
+		} else {
 
-			if (bestChoice != null) {
-				ant.moveTo(bestChoice);
-				ant.increaseStepsWalked();
-			}
+			// Probably move to node with highest pheromone two
+			bestChoice = ant.chooseCandidateByProbability(PHEROMONE_TWO, random, true, true, 1.1D);
 		}
 
+		if (bestChoice >= 0) {
+			ant.moveTo(bestChoice);
+			ant.increaseStepsWalked();
+		}
 	}
 
 	@Override
 	public void daemonActions() {
-		for (Ant ant : getAnts()) {
-			if (ant.isCarryingFood()) {
-
-				// Deposit pheromone two on current node
-				getGrid().getNode(ant.getPosition()).increasePheromoneBy(PHEROMONE_TWO,
-						getPheromoneStrength() * Math.pow(1 - getPheromoneFallOff(), ant.getStepsWalked()));
-
-				// If the nest is reached, set carrying food to false
-				if (getGrid().getNode(ant.getPosition()) instanceof Nest) {
-					ant.setCarryingFood(false);
-					ant.resetStepsWalked();
-					increaseFoodGathered();
-				}
-
-				// If another FoodSource is visited, reset stepsWalked
-				if (getGrid().getNode(ant.getPosition()) instanceof FoodSource) {
-					ant.resetStepsWalked();
-				}
-
-			} else {
-				// Deposit pheromone one
-				getGrid().getNode(ant.getPosition()).increasePheromoneBy(PHEROMONE_ONE,
-						getPheromoneStrength() * Math.pow(1 - getPheromoneFallOff(), ant.getStepsWalked()));
-
-				// If a FoodSource is reached, set carrying food to true
-				if (getGrid().getNode(ant.getPosition()) instanceof FoodSource) {
-					ant.setCarryingFood(true);
-					ant.resetStepsWalked();
-				}
-
-				// If the Nest is visited again, reset stepsWalked
-				if (getGrid().getNode(ant.getPosition()) instanceof Nest) {
-					ant.resetStepsWalked();
-				}
+		processAnts(getAnts(), this::daemonAction);
+	}
+
+	/**
+	 * Lets a single ant deposit pheromones and handles its state.
+	 * 
+	 * @param ant      the ant to handle
+	 * @param deposits the DepositBuffer that pheromones and food are recorded in
+	 */
+	private void daemonAction(Ant ant, DepositBuffer deposits) {
+		int cell = ant.getCell();
+		byte type = getGrid().getTerrainType(cell);
+		double amount = getDepositAmount(ant.getStepsWalked());
+
+		if (ant.isCarryingFood()) {
+
+			// Deposit pheromone two on current node
+			deposits.deposit(PHEROMONE_TWO, cell, amount);
+
+			// If the nest is reached, set carrying food to false
+			if (type == Terrain.NEST) {
+				ant.setCarryingFood(false);
+				ant.resetStepsWalked();
+				deposits.increaseFoodGathered();
+			}
+
+			// If another FoodSource is visited, reset stepsWalked
+			if (type == Terrain.FOOD_SOURCE) {
+				ant.resetStepsWalked();
+			}
+
+		} else {
+			// Deposit pheromone one
+			deposits.deposit(PHEROMONE_ONE, cell, amount);
+
+			// If a FoodSource is reached, set carrying food to true
+			if (type == Terrain.FOOD_SOURCE) {
+				ant.setCarryingFood(true);
+				ant.resetStepsWalked();
+			}
+
+			// If the Nest is visited again, reset stepsWalked
+			if (type == Terrain.NEST) {
+				ant.resetStepsWalked();
 			}
 		}
 	}
 
 	@Override
 	public void pheromoneUpdate() {
-		for (int x = 0; x < getGrid().getCellCount(); x++) {
-			for (int y = 0; y < getGrid().getCellCount(); y++) {
-				// Iterating through all GridNodes
-				GridNode tempNode = getGrid().getNode(x, y);
-				for (int i = 0; i < tempNode.getPheromones().length; i++) {
-
-					// Naive implementation of dissipation of pheromone to surrounding GridNodes
-					if (isUsingDissipation()) {
-						for (GridNode gn : tempNode.getNearbyNodes()) {
-
-							double temp = (tempNode.getPheromoneAmount(i) / GridNode.getMaxPheromone());
-							gn.increasePheromoneBy(i, temp);
-							tempNode.decreasePheromoneBy(i,
-									temp + (getEvaporationSpeed() / tempNode.getNearbyNodes().size()));
-						}
-					}
-
-					// Globally decreasing all pheromones
-					tempNode.decreasePheromoneBy(i, getEvaporationSpeed());
-				}
-			}
+		PheromoneField field = getGrid().getPheromoneField();
+
+		// Dissipation of pheromone to surrounding GridNodes
+		if (isUsingDissipation()) {
+			field.diffuse(1 / GridNode.getMaxPheromone(), getEvaporationSpeed(), getWorkerPool());
 		}
+
+		// Globally decreasing all pheromones
+		field.evaporate(getEvaporationSpeed());
 	}
 
 }
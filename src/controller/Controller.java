@@ -6,6 +6,10 @@ import java.awt.Point;
 import java.awt.image.BufferStrategy;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
 
 import algorithms.TwoPheromoneExample;
 import grid.Grid;
@@ -14,11 +18,14 @@ import model.Model;
 import utils.AStarPathfinding;
 import utils.KeyManager;
 import utils.MouseManager;
+import view.FrameSnapshot;
 import view.View;
 
 /**
  * The AntVi Controller class - It manages all other components, as well as the
- * main simulation and update loop.
+ * main simulation and update loop. The model is simulated on its own thread,
+ * which hands FrameSnapshots over to the render thread, so neither of them
+ * waits for the other.
  * 
  * @author Max Ehringhausen
  *
@@ -28,25 +35,37 @@ public class Controller implements Runnable {
 	private static final int DEFAULT_GRID_CELL_COUNT = 30;
 	private static final int RENDER_BUFFERS = 2;
 	private static final int MAXIMUM_FRAMES_PER_SECOND = 60;
+	// The most model ticks run in a row to catch up before the next frame
+	private static final int MAXIMUM_CATCH_UP_TICKS = 5;
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
 
 	private View view;
 	private Grid grid;
 	private Model model;
 	private AStarPathfinding pathfinding;
 
-	private boolean running;
-	private boolean modelRunning;
+	private volatile boolean running;
+	private volatile boolean modelRunning;
+	private volatile boolean turbo;
+	private volatile int framesPerSecond = MAXIMUM_FRAMES_PER_SECOND;
 	private Thread thread;
+	private Thread simulationThread;
+
+	// Triple buffered frames: one is filled, one is drawn and one is handed over
+	private FrameSnapshot simulationFrame = new FrameSnapshot();
+	private FrameSnapshot renderFrame = new FrameSnapshot();
+	private final AtomicReference<FrameSnapshot> readyFrame = new AtomicReference<>(new FrameSnapshot());
+	private long publishedFrames;
+	// The counters last handed to the SettingsWindow
+	private int shownModelTicks = -1;
+	private int shownFoodGathered = -1;
 
 	private KeyManager keyManager;
 	private MouseManager mouseManager;
 
 	public Controller(int width, int height) {
 		grid = new Grid(this, DEFAULT_GRID_CELL_COUNT, height);
-
-		// SET THE MODEL TO BE USED HERE
-		model = new TwoPheromoneExample(this, grid);
-		// ----------------------------
+		model = createModel();
 
 		// Initiate Grid and Model before the View, otherwise the event system breaks
 		view = new View(this, width, height);
@@ -56,6 +75,26 @@ public class Controller implements Runnable {
 		initializeListeners();
 	}
 
+	/**
+	 * Creates a headless Controller - No View, KeyManager or MouseManager is
+	 * created, so the Model can only be driven by calling Model.tick() directly.
+	 * Used by the HeadlessEngine.
+	 * 
+	 * @param cellCount the amount of columns or rows in the Grid
+	 */
+	Controller(int cellCount) {
+		// Every cell is one pixel wide, nothing is ever rendered anyway
+		grid = new Grid(this, cellCount, cellCount);
+		model = createModel();
+		pathfinding = new AStarPathfinding(grid);
+	}
+
+	private Model createModel() {
+		// SET THE MODEL TO BE USED HERE
+		return new TwoPheromoneExample(this, grid);
+		// ----------------------------
+	}
+
 	private void initializeListeners() {
 		view.getDisplayWindow().getFrame().addKeyListener(keyManager);
 		view.getDisplayWindow().getFrame().addMouseListener(mouseManager);
@@ -85,6 +124,7 @@ public class Controller implements Runnable {
 					break;
 				case "MaximumSaturationChanged":
 					GridNode.setMaxPheromone((int) e.getNewValue());
+					model.getGrid().applyMaxPheromone();
 					break;
 				case "AntCountChanged":
 					model.setAntCount((int) e.getNewValue());
@@ -94,7 +134,7 @@ public class Controller implements Runnable {
 					break;
 				case "ResetModel":
 					// Reset A* paths
-					pathfinding.findAllNeighbours();
+					pathfinding.clearPaths();
 
 					// Reset Simulation
 					setModelRunning(false);
@@ -105,15 +145,7 @@ public class Controller implements Runnable {
 					model.setAntCount(0);
 
 					// Reset pheromones
-					for (int x = 0; x < grid.getCellCount(); x++) {
-						for (int y = 0; y < grid.getCellCount(); y++) {
-							// Iterating through all GridNodes and decreasing all pheromones to 0
-							GridNode tempNode = grid.getNode(x, y);
-							for (int i = 0; i < tempNode.getPheromones().length; i++) {
-								tempNode.decreasePheromoneBy(i, Integer.MAX_VALUE);
-							}
-						}
-					}
+					grid.clearPheromones();
 					break;
 				case "ClearGrid":
 					grid.setCellCount(grid.getCellCount());
@@ -121,26 +153,25 @@ public class Controller implements Runnable {
 				case "ModelSpeedChanged":
 					model.setModelSpeed((int) e.getNewValue());
 					break;
+				case "TurboChanged":
+					setTurbo((boolean) e.getNewValue());
+					break;
+				case "FramesPerSecondChanged":
+					setFramesPerSecond((int) e.getNewValue());
+					break;
 				case "ShowShortestPaths":
 					if ((boolean) e.getNewValue()) {
 						// Reset previous paths
-						pathfinding.findAllNeighbours();
+						pathfinding.clearPaths();
 
-						// For each Nest find the shortest path(s) to all FoodSources
+						// For each Nest find the shortest path(s) to all FoodSources with a
+						// single search
 						for (Point nestPos : getGrid().getNestPositions()) {
-							for (Point foodPos : getGrid().getFoodPositions()) {
-
-								int startX = foodPos.x;
-								int startY = foodPos.y;
-
-								int targetX = nestPos.x;
-								int targetY = nestPos.y;
-								pathfinding.findPath(startX, startY, targetX, targetY);
-							}
+							pathfinding.findPathsTo(nestPos.x, nestPos.y, getGrid().getFoodPositions());
 						}
 					} else {
 						// Reset paths
-						pathfinding.findAllNeighbours();
+						pathfinding.clearPaths();
 					}
 					break;
 				case "UsingDissipationChanged":
@@ -154,64 +185,179 @@ public class Controller implements Runnable {
 	}
 
 	/**
-	 * Logic for running the simulation
+	 * Logic for rendering - Draws the newest FrameSnapshot published by the
+	 * simulation thread at the chosen frame rate. Only snapshots are drawn, so
+	 * rendering never waits for a model tick and a slow tick can't drop frames.
+	 * In between, the thread is parked until the next frame is due.
 	 */
 	public void run() {
 
-		// Variables for delta time and metrics
-		int fps = MAXIMUM_FRAMES_PER_SECOND;
-		double timePerTick = (1_000_000_000 / fps);
-		double delta = 0;
-		long now;
 		long lastTime = System.nanoTime();
+		long nextFrame = lastTime;
+
+		// Variables for metrics
 		long timer = 0;
-		long modelTimer = 0;
-		int ticks = 0;
+		int frames = 0;
 
-		// Main simulation loop
+		// Main render loop
 		while (running) {
-			now = System.nanoTime();
-			delta += (now - lastTime) / timePerTick;
+			long now = System.nanoTime();
 			timer += now - lastTime;
-			modelTimer += now - lastTime;
 			lastTime = now;
 
 			// Every one second check if the performance is still good
-			if (timer >= 1_000_000_000) {
-				if (ticks < MAXIMUM_FRAMES_PER_SECOND - 5) {
+			if (timer >= NANOS_PER_SECOND) {
+				if (frames < framesPerSecond - 5) {
 					System.out.println("There might be a perfomance problem.");
-					System.out.println("Current frames per second: " + ticks);
+					System.out.println("Current frames per second: " + frames);
 				}
 				timer = 0;
+				frames = 0;
+			}
+
+			if (now >= nextFrame) {
+				render();
+				frames++;
+				nextFrame = nextFrameTime(nextFrame, now);
 			}
 
-			// Update the model <modelSpeed> ticks per second
-			if (modelRunning && (modelTimer >= 1_000_000_000 / model.getModelSpeed())) {
-				// Update the model
+			// Sleep until the next frame is due
+			parkUntil(nextFrame);
+		}
+
+		stop();
+	}
+
+	/**
+	 * Logic for running the simulation - The model advances in fixed steps of
+	 * (1 / modelSpeed) seconds, independent of the frame rate. Time the model falls
+	 * behind is caught up with several ticks in a row, but never more than
+	 * MAXIMUM_CATCH_UP_TICKS per pass. In turbo mode the model is ticked as often
+	 * as possible instead. Input is handled and a FrameSnapshot is published at
+	 * the chosen frame rate, always between two ticks. In between, the thread is
+	 * parked until the next tick or frame is due instead of spinning.
+	 */
+	private void runSimulation() {
+
+		long lastTime = System.nanoTime();
+		long nextFrame = lastTime;
+		long modelTime = 0;
+
+		// Main simulation loop
+		while (running) {
+			long now = System.nanoTime();
+			long elapsed = now - lastTime;
+			lastTime = now;
+
+			long tickTime = NANOS_PER_SECOND / Math.max(model.getModelSpeed(), 1);
+			boolean ticking = modelRunning && !turbo;
+			if (modelRunning && turbo) {
+				// Most of these ticks are never rendered
 				model.tick();
-				modelTimer = 0;
+				modelTime = 0;
+			} else if (ticking) {
+				// Update the model <modelSpeed> ticks per second, keeping any overshoot
+				modelTime += elapsed;
+				int ticks = 0;
+				while (modelTime >= tickTime && ticks < MAXIMUM_CATCH_UP_TICKS) {
+					model.tick();
+					modelTime -= tickTime;
+					ticks++;
+				}
+				if (modelTime >= tickTime) {
+					// Too far behind, drop the rest instead of catching up forever
+					modelTime %= tickTime;
+				}
+			} else {
+				modelTime = 0;
 			}
 
-			if (delta >= 1) {
+			if (now >= nextFrame) {
 				// Update the Grid
 				keyManager.tick();
 				grid.tick();
 
-				// Render everything
-				render();
-				ticks++;
-				delta--;
+				publishFrame();
+				nextFrame = nextFrameTime(nextFrame, now);
+			}
+
+			if (!modelRunning || !turbo) {
+				// Sleep until the next frame or model tick is due
+				long wakeUp = nextFrame;
+				if (ticking) {
+					wakeUp = Math.min(wakeUp, now + tickTime - modelTime);
+				}
+				parkUntil(wakeUp);
 			}
 		}
+	}
 
-		stop();
+	/**
+	 * Calculates when the frame after the current one is due.
+	 * 
+	 * @param frame the point in time the current frame was due at
+	 * @param now   the current point in time
+	 * @return the point in time the next frame is due at
+	 */
+	private long nextFrameTime(long frame, long now) {
+		long nextFrame = frame + NANOS_PER_SECOND / framesPerSecond;
+		if (nextFrame <= now) {
+			// Skip frames that were missed rather than rendering them in a burst
+			nextFrame = now + NANOS_PER_SECOND / framesPerSecond;
+		}
+		return nextFrame;
+	}
+
+	/**
+	 * Fills the FrameSnapshot owned by the simulation thread and hands it over to
+	 * the render thread. The previously handed over FrameSnapshot is taken back in
+	 * return, it is either older than the one being drawn or was never drawn. The
+	 * tick and food counters of the SettingsWindow are updated here as well, so
+	 * Swing is notified once per frame instead of once per tick.
+	 */
+	private void publishFrame() {
+		FrameSnapshot frame = simulationFrame;
+		grid.snapshot(frame.getGridSnapshot());
+		model.snapshot(frame.getAntSnapshot());
+		frame.setSequence(++publishedFrames);
+		simulationFrame = readyFrame.getAndSet(frame);
+
+		int modelTicks = model.getModelTicks();
+		int foodGathered = model.getFoodGathered();
+		if (modelTicks != shownModelTicks || foodGathered != shownFoodGathered) {
+			shownModelTicks = modelTicks;
+			shownFoodGathered = foodGathered;
+			SwingUtilities.invokeLater(() -> view.getSettingsWindow().showCounters(modelTicks, foodGathered));
+		}
+	}
+
+	/**
+	 * Parks the current thread until a point in time is reached, or until it is
+	 * unparked (e.g. when the application is stopped).
+	 * 
+	 * @param deadline the point in time in System.nanoTime() nanoseconds
+	 */
+	private void parkUntil(long deadline) {
+		long remaining = deadline - System.nanoTime();
+		while (running && remaining > 0) {
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			remaining = deadline - System.nanoTime();
+		}
 	}
 
 	/**
-	 * Used for rendering the Grid and Model each tick
+	 * Used for rendering the newest FrameSnapshot each frame
 	 */
 	private void render() {
 
+		// Take the newest frame, if the simulation thread has published one since
+		if (readyFrame.get().getSequence() > renderFrame.getSequence()) {
+			renderFrame = readyFrame.getAndSet(renderFrame);
+		}
+
 		// Use buffered Graphics to avoid any visual stuttering or artifacts
 		BufferStrategy bufferStrategy = view.getDisplayWindow().getCanvas().getBufferStrategy();
 		if (bufferStrategy == null) {
@@ -226,9 +372,9 @@ public class Controller implements Runnable {
 		g.fillRect(0, 0, view.getWidth(), view.getHeight());
 
 		// Rendering
-		grid.render(g);
+		renderFrame.getGridSnapshot().render(g);
 		pathfinding.render(g);
-		model.render(g);
+		renderFrame.getAntSnapshot().render(g);
 
 		bufferStrategy.show();
 		g.dispose();
@@ -242,7 +388,9 @@ public class Controller implements Runnable {
 			return;
 		}
 		running = true;
-		thread = new Thread(this);
+		simulationThread = new Thread(this::runSimulation, "AntVi Simulation");
+		simulationThread.start();
+		thread = new Thread(this, "AntVi Render");
 		thread.start();
 	}
 
@@ -254,8 +402,13 @@ public class Controller implements Runnable {
 			return;
 		}
 		running = false;
+		LockSupport.unpark(simulationThread);
+		LockSupport.unpark(thread);
 		try {
-			thread.join();
+			simulationThread.join();
+			if (Thread.currentThread() != thread) {
+				thread.join();
+			}
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
@@ -263,6 +416,37 @@ public class Controller implements Runnable {
 
 	public synchronized void setModelRunning(boolean running) {
 		modelRunning = running;
+		// Start ticking right away instead of at the next frame
+		LockSupport.unpark(simulationThread);
+	}
+
+	/**
+	 * Enables or disables the turbo mode. In turbo mode the simulation thread
+	 * ticks the model as often as possible instead of <modelSpeed> times per
+	 * second.
+	 * 
+	 * @param turbo true if the model should run as fast as possible
+	 */
+	public void setTurbo(boolean turbo) {
+		this.turbo = turbo;
+		LockSupport.unpark(simulationThread);
+	}
+
+	public boolean isTurbo() {
+		return turbo;
+	}
+
+	/**
+	 * Sets how many frames per second are rendered at most.
+	 * 
+	 * @param framesPerSecond the frame rate, between 1 and 60
+	 */
+	public void setFramesPerSecond(int framesPerSecond) {
+		this.framesPerSecond = Math.max(1, Math.min(framesPerSecond, MAXIMUM_FRAMES_PER_SECOND));
+	}
+
+	public int getFramesPerSecond() {
+		return framesPerSecond;
 	}
 
 	public Grid getGrid() {
@@ -0,0 +1,133 @@
+package controller;
+
+import grid.Grid;
+import grid.PheromoneField;
+import grid.PheromonePrecision;
+import model.Model;
+
+/**
+ * The AntVi HeadlessEngine class - It drives the Grid and Model without any
+ * window or input handling, running a fixed amount of model ticks as fast as
+ * possible. Used for batch runs and throughput measurements.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public class HeadlessEngine {
+
+	private static final int DEFAULT_CELL_COUNT = 100;
+	private static final int DEFAULT_ANT_COUNT = 500;
+	private static final int DEFAULT_TICKS = 10_000;
+
+	private Controller controller;
+
+	/**
+	 * Creates a HeadlessEngine with a Grid of a certain size. The Grid contains a
+	 * single Nest at (0/0) and no FoodSources.
+	 *
+	 * @param cellCount the amount of columns or rows in the Grid
+	 */
+	public HeadlessEngine(int cellCount) {
+		controller = new Controller(cellCount);
+	}
+
+	/**
+	 * Runs the model for a fixed amount of ticks without any pauses in between.
+	 *
+	 * @param ticks the amount of model ticks to run
+	 * @return the time it took to run all ticks in nanoseconds
+	 */
+	public long run(int ticks) {
+		Model model = controller.getModel();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ticks; i++) {
+			model.tick();
+		}
+		return System.nanoTime() - start;
+	}
+
+	public Controller getController() {
+		return controller;
+	}
+
+	public Grid getGrid() {
+		return controller.getGrid();
+	}
+
+	public Model getModel() {
+		return controller.getModel();
+	}
+
+	/**
+	 * Runs a single headless simulation and prints the results.<br>
+	 * Options: --cells &lt;n&gt; --ants &lt;n&gt; --ticks &lt;n&gt; --lazy &lt;0|1&gt;<br>
+	 * --dissipation &lt;0|1&gt; --threads &lt;n&gt; --parallel-ants &lt;0|1&gt; --seed &lt;n&gt;<br>
+	 * --sparse &lt;0|1&gt; --precision &lt;64|32|16&gt;<br>
+	 * A FoodSource is placed in the corner opposite of the Nest.
+	 *
+	 * @param args the command line options
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+
+		int cellCount = parseOption(args, "--cells", DEFAULT_CELL_COUNT);
+		int antCount = parseOption(args, "--ants", DEFAULT_ANT_COUNT);
+		int ticks = parseOption(args, "--ticks", DEFAULT_TICKS);
+		boolean lazyEvaporation = parseOption(args, "--lazy", 1) != 0;
+		boolean dissipation = parseOption(args, "--dissipation", 0) != 0;
+		int threads = parseOption(args, "--threads", Runtime.getRuntime().availableProcessors());
+		boolean parallelAnts = parseOption(args, "--parallel-ants", 1) != 0;
+		int seed = parseOption(args, "--seed", 0);
+		boolean sparse = parseOption(args, "--sparse", 0) != 0;
+		int precisionBits = parseOption(args, "--precision", 64);
+
+		HeadlessEngine engine = new HeadlessEngine(cellCount);
+		if (sparse) {
+			engine.getGrid().setSparsePheromones(true);
+		}
+		if (precisionBits == 32) {
+			engine.getGrid().setPheromonePrecision(PheromonePrecision.FLOAT);
+		} else if (precisionBits == 16) {
+			engine.getGrid().setPheromonePrecision(PheromonePrecision.SHORT);
+		}
+		engine.getGrid().placeFoodSource(cellCount - 1, cellCount - 1);
+		engine.getModel().setUsingLazyEvaporation(lazyEvaporation);
+		engine.getModel().setUsingDissipation(dissipation);
+		engine.getModel().setWorkerThreads(threads);
+		engine.getModel().setUsingParallelAnts(parallelAnts);
+		engine.getModel().setSeed(seed);
+		engine.getModel().setAntCount(antCount);
+
+		long nanos = engine.run(ticks);
+		double seconds = nanos / 1_000_000_000D;
+
+		System.out.println(String.format("Grid: %dx%d, Ants: %d, Ticks: %d, Threads: %d", cellCount, cellCount,
+				antCount, ticks, threads));
+		System.out.println(String.format("Lazy evaporation: %b, Dissipation: %b, Parallel ants: %b, Seed: %d",
+				engine.getModel().isUsingLazyEvaporation(), dissipation, parallelAnts, seed));
+		System.out.println(String.format("Sparse pheromones: %b, Allocated chunks: %d, Precision: %s",
+				engine.getGrid().isSparsePheromones(), engine.getGrid().getPheromoneField().getAllocatedChunks(),
+				engine.getGrid().getPheromonePrecision()));
+		System.out.println("Pheromone kernel: " + PheromoneField.getKernelName());
+		System.out.println(String.format("Time: %.3f s, Ticks/s: %.1f", seconds, ticks / seconds));
+		System.out.println(String.format("Food gathered: %d", engine.getModel().getFoodGathered()));
+	}
+
+	/**
+	 * Finds the value of an integer command line option.
+	 *
+	 * @param args         the command line arguments
+	 * @param name         the name of the option, e.g. "--ticks"
+	 * @param defaultValue the value used if the option is not present
+	 * @return the value of the option, or the default value
+	 */
+	private static int parseOption(String[] args, String name, int defaultValue) {
+		for (int i = 0; i < args.length - 1; i++) {
+			if (name.equals(args[i])) {
+				return Integer.parseInt(args[i + 1]);
+			}
+		}
+		return defaultValue;
+	}
+}
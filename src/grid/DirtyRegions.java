@@ -0,0 +1,80 @@
+package grid;
+
+import java.util.BitSet;
+
+/**
+ * The AntVi DirtyRegions class - It divides the Grid into square chunks and
+ * keeps track of which chunks have changed since they were last rendered.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+class DirtyRegions {
+
+	static final int CHUNK_SIZE = 16;
+
+	private final int cellCount;
+	private final int chunksPerRow;
+	private final BitSet dirty;
+
+	/**
+	 * Creates DirtyRegions for a Grid, initially with all chunks marked as dirty.
+	 *
+	 * @param cellCount the amount of columns or rows in the Grid
+	 */
+	DirtyRegions(int cellCount) {
+		this.cellCount = cellCount;
+		chunksPerRow = (cellCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		dirty = new BitSet(chunksPerRow * chunksPerRow);
+		markAll();
+	}
+
+	/**
+	 * Marks the chunk containing a cell as dirty.
+	 *
+	 * @param x the x-coordinate in the Grid
+	 * @param y the y-coordinate in the Grid
+	 */
+	void markCell(int x, int y) {
+		dirty.set((y / CHUNK_SIZE) * chunksPerRow + x / CHUNK_SIZE);
+	}
+
+	/**
+	 * Marks the chunk containing a cell as dirty.
+	 *
+	 * @param cell the index of the cell (y * cellCount + x)
+	 */
+	void markCell(int cell) {
+		markCell(cell % cellCount, cell / cellCount);
+	}
+
+	void markChunk(int chunk) {
+		dirty.set(chunk);
+	}
+
+	void markAll() {
+		dirty.set(0, chunksPerRow * chunksPerRow);
+	}
+
+	/**
+	 * Finds the next dirty chunk, starting at a given chunk.
+	 *
+	 * @param fromChunk the chunk to start searching at
+	 * @return the index of the next dirty chunk, or -1 if there is none
+	 */
+	int nextDirtyChunk(int fromChunk) {
+		return dirty.nextSetBit(fromChunk);
+	}
+
+	void clear() {
+		dirty.clear();
+	}
+
+	int getChunksPerRow() {
+		return chunksPerRow;
+	}
+
+	int getCellCount() {
+		return cellCount;
+	}
+}
@@ -0,0 +1,71 @@
+package grid;
+
+import java.util.Arrays;
+
+/**
+ * The AntVi DoublePheromoneStorage class - A dense PheromoneStorage with one
+ * double per cell and pheromone. The values are stored channel-major, meaning
+ * all cells of pheromone 0 come first, followed by all cells of pheromone 1 and
+ * so on.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+final class DoublePheromoneStorage extends PheromoneStorage {
+
+	private final int cells;
+	private final int channels;
+	private final double[] values;
+
+	/**
+	 * Creates an empty DoublePheromoneStorage.
+	 *
+	 * @param cells    the amount of cells
+	 * @param channels the amount of different pheromones per cell
+	 */
+	DoublePheromoneStorage(int cells, int channels) {
+		this.cells = cells;
+		this.channels = channels;
+		values = new double[cells * channels];
+	}
+
+	@Override
+	double get(int channel, int cell) {
+		return values[channel * cells + cell];
+	}
+
+	@Override
+	void set(int channel, int cell, double value) {
+		values[channel * cells + cell] = value;
+	}
+
+	@Override
+	void getRange(int channel, int cell, double[] target, int offset, int length) {
+		System.arraycopy(values, channel * cells + cell, target, offset, length);
+	}
+
+	@Override
+	void setRange(int channel, int cell, double[] source, int offset, int length) {
+		System.arraycopy(source, offset, values, channel * cells + cell, length);
+	}
+
+	@Override
+	boolean evaporate(double amount) {
+		return PheromoneKernel.getInstance().evaporate(values, amount);
+	}
+
+	@Override
+	void clamp(double max) {
+		PheromoneKernel.getInstance().clamp(values, max);
+	}
+
+	@Override
+	void clear() {
+		Arrays.fill(values, 0);
+	}
+
+	@Override
+	PheromoneStorage createEmpty() {
+		return new DoublePheromoneStorage(cells, channels);
+	}
+}
@@ -0,0 +1,76 @@
+package grid;
+
+import java.util.Arrays;
+
+/**
+ * The AntVi FloatPheromoneStorage class - A dense PheromoneStorage with one
+ * float per cell and pheromone, half the size of a DoublePheromoneStorage. The
+ * values are stored channel-major, like in a DoublePheromoneStorage.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+final class FloatPheromoneStorage extends PheromoneStorage {
+
+	private final int cells;
+	private final int channels;
+	private final float[] values;
+
+	/**
+	 * Creates an empty FloatPheromoneStorage.
+	 *
+	 * @param cells    the amount of cells
+	 * @param channels the amount of different pheromones per cell
+	 */
+	FloatPheromoneStorage(int cells, int channels) {
+		this.cells = cells;
+		this.channels = channels;
+		values = new float[cells * channels];
+	}
+
+	@Override
+	double get(int channel, int cell) {
+		return values[channel * cells + cell];
+	}
+
+	@Override
+	void set(int channel, int cell, double value) {
+		values[channel * cells + cell] = (float) value;
+	}
+
+	@Override
+	void getRange(int channel, int cell, double[] target, int offset, int length) {
+		int start = channel * cells + cell;
+		for (int i = 0; i < length; i++) {
+			target[offset + i] = values[start + i];
+		}
+	}
+
+	@Override
+	void setRange(int channel, int cell, double[] source, int offset, int length) {
+		int start = channel * cells + cell;
+		for (int i = 0; i < length; i++) {
+			values[start + i] = (float) source[offset + i];
+		}
+	}
+
+	@Override
+	boolean evaporate(double amount) {
+		return PheromoneKernel.getInstance().evaporate(values, (float) amount);
+	}
+
+	@Override
+	void clamp(double max) {
+		PheromoneKernel.getInstance().clamp(values, (float) max);
+	}
+
+	@Override
+	void clear() {
+		Arrays.fill(values, 0);
+	}
+
+	@Override
+	PheromoneStorage createEmpty() {
+		return new FloatPheromoneStorage(cells, channels);
+	}
+}
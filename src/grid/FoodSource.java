@@ -12,18 +12,18 @@ import java.awt.event.KeyEvent;
  */
 public class FoodSource extends GridNode {
 
+	static final int RGB = Color.GREEN.getRGB();
+
 	/**
 	 * Creates a FoodSource.
 	 * 
 	 * @param grid     the Grid this FoodSource is part of
 	 * @param x        the x-coordinate in the Grid
 	 * @param y        the y-coordinate in the Grid
-	 * @param cellSize the cellSize based on the Grid
-	 * @param offset   the offset in absolute pixels
 	 * @param hovering whether the mouse is hovering over this GridNode
 	 */
-	protected FoodSource(Grid grid, int x, int y, int cellSize, int offset, boolean hovering) {
-		super(grid, x, y, cellSize, offset);
+	protected FoodSource(Grid grid, int x, int y, boolean hovering) {
+		super(grid, x, y);
 		this.hovering = hovering;
 		blocking = false;
 	}
@@ -32,8 +32,7 @@ public class FoodSource extends GridNode {
 	public void tick() {
 		if (hovering && grid.getController().getKeyManager().keyJustPressed(KeyEvent.VK_F)) {
 			// Remove existing FoodSource
-			grid.setNode(getX(), getY(),
-					new Tile(grid, getX(), getY(), grid.getCellSize(), grid.getOffset(), hovering));
+			grid.setNode(getX(), getY(), new Tile(grid, getX(), getY(), hovering));
 			grid.getFoodPositions().remove(getGridPosition());
 		}
 	}
@@ -44,6 +43,16 @@ public class FoodSource extends GridNode {
 		g.fillRect(bounds.x + 1, bounds.y + 1, bounds.width - 1, bounds.height - 1);
 	}
 
+	@Override
+	public int getColorRGB() {
+		return RGB;
+	}
+
+	@Override
+	public byte getTerrainType() {
+		return Terrain.FOOD_SOURCE;
+	}
+
 	@Override
 	public void onClick() {
 		// Nothing to do.
@@ -1,8 +1,5 @@
 package grid;
 
-import java.awt.BasicStroke;
-import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
@@ -20,15 +17,41 @@ import controller.Controller;
  */
 public class Grid {
 
+	private static final int DEFAULT_PHEROMONE_CHANNELS = 8;
+	// Grids with at least this many columns or rows don't create a GridNode per cell
+	private static final int DEFAULT_LARGE_MAP_CELL_COUNT = 1024;
+
 	private Controller controller;
 	private int offset;
 	private int size;
-	private int cellCount;
+	private int displaySize;
+	private volatile int cellCount;
 	private int cellSize;
 	private int initialCellSize;
 	private ArrayList<Point> nestPositions;
 	private ArrayList<Point> foodPositions;
-	private GridNode[][] nodes;
+	/*
+	 * Snapshot of all GridNodes, indexed by [x][y]. It is never changed once it is
+	 * published: every change replaces it with a copy, so it can be read without
+	 * any locks. Null on large maps, where GridNodes are only created on demand.
+	 */
+	private volatile GridNode[][] nodes;
+	// The Terrain of every cell (y * cellCount + x), mirrors the GridNodes
+	private volatile byte[] terrain;
+	private int largeMapCellCount = DEFAULT_LARGE_MAP_CELL_COUNT;
+	// Incremented whenever the Grid is rebuilt, cell indices are only valid within one
+	private int rebuildCount;
+	// The cell the mouse is hovering over on large maps, -1 if none
+	private int hoveredCell = -1;
+	private int pheromoneChannels = DEFAULT_PHEROMONE_CHANNELS;
+	private PheromoneField pheromoneField;
+	// Whether new dense PheromoneFields should use lazy evaporation
+	private boolean preferLazyEvaporation;
+	private boolean sparsePheromones;
+	private PheromonePrecision pheromonePrecision = PheromonePrecision.DOUBLE;
+	private double pheromoneScale;
+	private GridRenderer renderer = new GridRenderer();
+	private DirtyRegions dirtyRegions;
 	private Point clickedPoint;
 	private Point releasedPoint;
 	private Rectangle selection;
@@ -43,12 +66,11 @@ public class Grid {
 	public Grid(Controller controller, int cellCount, int size) {
 
 		this.controller = controller;
-		nodes = new GridNode[cellCount][cellCount];
 		nestPositions = new ArrayList<>();
 		foodPositions = new ArrayList<>();
 		this.size = size;
 		this.cellCount = cellCount;
-		cellSize = size / cellCount;
+		cellSize = calculateCellSize();
 		initialCellSize = cellSize;
 
 		calculateOffset();
@@ -59,70 +81,86 @@ public class Grid {
 	 * Populates the Grid with Tiles.
 	 */
 	private synchronized void initialize() {
-		synchronized (nodes) {
-			nodes = new GridNode[cellCount][cellCount];
-			nestPositions = new ArrayList<>();
-			foodPositions = new ArrayList<>();
-
-			for (int x = 0; x < cellCount; x++) {
-				for (int y = 0; y < cellCount; y++) {
+		rebuildCount++;
+		terrain = new byte[cellCount * cellCount];
+		nestPositions = new ArrayList<>();
+		foodPositions = new ArrayList<>();
+		dirtyRegions = new DirtyRegions(cellCount);
+		replacePheromoneField();
+		hoveredCell = -1;
 
-					// Filling the Grid with empty Tiles
-					nodes[x][y] = new Tile(this, x, y, cellSize, offset, false);
-				}
-			}
+		if (cellCount >= largeMapCellCount) {
+			// Only the terrain is stored, all cells start out as empty Tiles
+			nodes = null;
 
 			// Placing first Nest at (0/0)
-			nodes[0][0] = new Nest(this, 0, 0, cellSize, offset, false);
-			nestPositions.add(nodes[0][0].getGridPosition());
+			terrain[0] = Terrain.NEST;
+			nestPositions.add(new Point(0, 0));
+			return;
 		}
+
+		GridNode[][] created = new GridNode[cellCount][cellCount];
+		for (int x = 0; x < cellCount; x++) {
+			for (int y = 0; y < cellCount; y++) {
+
+				// Filling the Grid with empty Tiles
+				created[x][y] = new Tile(this, x, y, false);
+			}
+		}
+
+		// Placing first Nest at (0/0)
+		created[0][0] = new Nest(this, 0, 0, false);
+		terrain[0] = created[0][0].getTerrain();
+		nestPositions.add(created[0][0].getGridPosition());
+
+		// Publish the new GridNodes only once they are complete
+		nodes = created;
 	}
 
 	/**
 	 * Iterates through all GridNodes and updates them.
 	 */
 	public synchronized void tick() {
-		synchronized (nodes) {
-			for (int x = 0; x < cellCount; x++) {
-				for (int y = 0; y < cellCount; y++) {
-					nodes[x][y].tick();
-				}
+		GridNode[][] current = nodes;
+		if (current == null) {
+			// Only the hovered GridNode can react to any input
+			if (hoveredCell >= 0) {
+				getNode(hoveredCell % cellCount, hoveredCell / cellCount).tick();
+			}
+			return;
+		}
+
+		for (int x = 0; x < current.length; x++) {
+			for (int y = 0; y < current.length; y++) {
+				current[x][y].tick();
 			}
 		}
 	}
 
 	/**
-	 * Iterates through all GridNodes and renders them.
+	 * Renders all GridNodes into a single image and copies it into a GridSnapshot,
+	 * which can then be drawn without holding the lock of the Grid.
 	 * 
-	 * @param g the AWT Graphics2D object to be used for rendering
+	 * @param snapshot the GridSnapshot to fill
 	 */
-	public synchronized void render(Graphics2D g) {
-		// Draw all GridNodes
-		synchronized (nodes) {
-			for (int x = 0; x < cellCount; x++) {
-				for (int y = 0; y < cellCount; y++) {
-					nodes[x][y].render(g);
-				}
-			}
-		}
-
-		// Draw the selection rectangle
-		if (selection != null) {
-			g.setColor(Color.RED);
-			g.setStroke(new BasicStroke(2.0F));
-			g.draw(selection);
-		}
+	public synchronized void snapshot(GridSnapshot snapshot) {
+		renderer.update(terrain, pheromoneField, dirtyRegions);
+		renderer.copyTo(snapshot, cellSize, offset, displaySize, selection);
 	}
 
 	
 	public synchronized void onMouseMove(MouseEvent e) {
 		//TODO This needs to be made more performant and elegant...
 		// Update GridNodes based on mouse position
-		synchronized (nodes) {
-			for (int x = 0; x < cellCount; x++) {
-				for (int y = 0; y < cellCount; y++) {
-					nodes[x][y].onMouseMove(e);
-				}
+		GridNode[][] current = nodes;
+		if (current == null) {
+			hoveredCell = getCellAt(e.getX(), e.getY());
+			return;
+		}
+
+		for (int x = 0; x < current.length; x++) {
+			for (int y = 0; y < current.length; y++) {
+				current[x][y].onMouseMove(e);
 			}
 		}
 	}
@@ -146,16 +184,22 @@ public class Grid {
 
 	public synchronized void onMouseRelease(MouseEvent e) {
 
-		synchronized (nodes) {
-			for (int x = 0; x < cellCount; x++) {
-				for (int y = 0; y < cellCount; y++) {
-					nodes[x][y].onMouseMove(e);
-					if (selection != null && selection.intersects(nodes[x][y].bounds) && nodes[x][y] instanceof Tile) {
+		GridNode[][] current = nodes;
+		if (current == null) {
+			onLargeMapMouseRelease(e);
+
+		} else {
+			Rectangle selected = selection == null ? null : getSelectedCells();
+			for (int x = 0; x < current.length; x++) {
+				for (int y = 0; y < current.length; y++) {
+					GridNode gn = current[x][y];
+					gn.onMouseMove(e);
+					if (selection != null && selected.contains(x, y) && gn instanceof Tile) {
 						// If there is a selection box, invert all Tiles inside it
-						nodes[x][y].setBlocking(!nodes[x][y].isBlocking());
+						gn.setBlocking(!gn.isBlocking());
 					} else {
 						// If there is no selection box, a GridNode was clicked
-						nodes[x][y].onMouseRelease(e);
+						gn.onMouseRelease(e);
 					}
 				}
 			}
@@ -166,9 +210,109 @@ public class Grid {
 		selection = null;
 	}
 
+	/**
+	 * Handles a mouse release on a large map, where only the terrain is stored.
+	 */
+	private void onLargeMapMouseRelease(MouseEvent e) {
+		onMouseMove(e);
+
+		if (selection == null) {
+			// If there is no selection box, a GridNode was clicked
+			if (hoveredCell >= 0) {
+				getNode(hoveredCell % cellCount, hoveredCell / cellCount).onMouseRelease(e);
+			}
+			return;
+		}
+
+		// If there is a selection box, invert all Tiles inside it
+		Rectangle selected = getSelectedCells();
+		for (int y = selected.y; y < selected.y + selected.height; y++) {
+			for (int x = selected.x; x < selected.x + selected.width; x++) {
+				int cell = y * cellCount + x;
+				if (Terrain.getType(terrain[cell]) == Terrain.TILE) {
+					terrain[cell] ^= Terrain.BLOCKING;
+					dirtyRegions.markCell(x, y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the cells touched by the selection rectangle - Must only be called
+	 * while there is a selection.
+	 * 
+	 * @return the touched columns and rows, empty if the selection misses the Grid
+	 */
+	private Rectangle getSelectedCells() {
+		int fromX = Math.max(toCell(selection.x), 0);
+		int fromY = Math.max(toCell(selection.y), 0);
+		int toX = Math.min(toCell(selection.x + selection.width), cellCount - 1);
+		int toY = Math.min(toCell(selection.y + selection.height), cellCount - 1);
+		return new Rectangle(fromX, fromY, Math.max(toX - fromX + 1, 0), Math.max(toY - fromY + 1, 0));
+	}
+
+	/**
+	 * Finds the cell at a set of absolute pixel coordinates.
+	 * 
+	 * @param x the absolute x-coordinate in pixels
+	 * @param y the absolute y-coordinate in pixels
+	 * @return the index of the cell (y * cellCount + x), -1 if there is none
+	 */
+	private int getCellAt(int x, int y) {
+		int cellX = toCell(x);
+		int cellY = toCell(y);
+		if (cellX < 0 || cellY < 0 || cellX >= cellCount || cellY >= cellCount) {
+			return -1;
+		}
+		return cellY * cellCount + cellX;
+	}
+
+	/**
+	 * Finds the column or row at an absolute pixel coordinate.
+	 * 
+	 * @param pixel the absolute x- or y-coordinate in pixels
+	 * @return the column or row, may be out of bounds
+	 */
+	private int toCell(int pixel) {
+		return (int) Math.floorDiv((long) (pixel - offset) * cellCount, displaySize);
+	}
+
+	/**
+	 * Gets the pixels that belong to a cell on the screen. If the Grid has more
+	 * cells than pixels, some cells are skipped and get empty bounds.
+	 * 
+	 * @param x the x-coordinate in the Grid
+	 * @param y the y-coordinate in the Grid
+	 * @return the bounds of the cell in absolute pixels
+	 */
+	Rectangle getCellBounds(int x, int y) {
+		int fromX = toPixel(x);
+		int fromY = toPixel(y);
+		return new Rectangle(fromX, fromY, toPixel(x + 1) - fromX, toPixel(y + 1) - fromY);
+	}
+
+	/**
+	 * Finds the first pixel that belongs to a column or row, the inverse of
+	 * toCell().
+	 * 
+	 * @param cell the column or row
+	 * @return the absolute x- or y-coordinate in pixels
+	 */
+	private int toPixel(int cell) {
+		return (int) (((long) cell * displaySize + cellCount - 1) / cellCount) + offset;
+	}
+
+	private int calculateCellSize() {
+		// Large maps may have more cells than pixels, cells are never smaller than one
+		// pixel
+		return Math.max(size / cellCount, 1);
+	}
+
 	private void calculateOffset() {
+		// Grids with more cells than pixels are scaled down to fit
+		displaySize = Math.min(cellSize * cellCount, size);
 		// Calculating the Grid offset so it can be displayed centered
-		offset = (size - (cellSize * cellCount));
+		offset = (size - displaySize);
 		offset = (offset / 2);
 	}
 
@@ -179,16 +323,138 @@ public class Grid {
 	 * @param cellCount the amount of cells that the Grid should have
 	 */
 	public synchronized void setCellCount(int cellCount) {
-		synchronized (nodes) {
-			this.cellCount = cellCount;
-			cellSize = size / cellCount;
-			calculateOffset();
-			initialize();
-			controller.getPathfinding().findAllNeighbours();
-		}
+		this.cellCount = cellCount;
+		cellSize = calculateCellSize();
+		calculateOffset();
+		initialize();
+		controller.getPathfinding().findAllNeighbours();
+	}
+
+	/**
+	 * Sets the amount of different pheromones each cell can hold. This replaces
+	 * the PheromoneField, so all pheromones are lost.
+	 * 
+	 * @param pheromoneChannels the amount of different pheromones per cell
+	 */
+	public synchronized void setPheromoneChannels(int pheromoneChannels) {
+		this.pheromoneChannels = pheromoneChannels;
+		replacePheromoneField();
+	}
+
+	private void replacePheromoneField() {
+		// Let the old PheromoneField be collected first, large maps may not fit both
+		pheromoneField = null;
+
+		// Large maps always store their pheromones sparsely
+		boolean sparse = sparsePheromones || cellCount >= largeMapCellCount;
+		PheromoneField field = new PheromoneField(cellCount, pheromoneChannels, sparse, pheromonePrecision,
+				pheromoneScale);
+		field.setLazyEvaporation(preferLazyEvaporation);
+		field.setDirtyRegions(dirtyRegions);
+		pheromoneField = field;
+	}
+
+	/**
+	 * Sets whether the PheromoneField should only apply evaporation once a cell is
+	 * read or changed. This setting is kept when the Grid is re-initialized. Sparse
+	 * PheromoneFields, including the ones of all large maps, always evaporate
+	 * eagerly and ignore it, see isLazyEvaporation().
+	 * 
+	 * @param lazyEvaporation true if lazy evaporation should be used
+	 */
+	public synchronized void setLazyEvaporation(boolean lazyEvaporation) {
+		preferLazyEvaporation = lazyEvaporation;
+		pheromoneField.setLazyEvaporation(lazyEvaporation);
+	}
+
+	/**
+	 * Whether the current PheromoneField actually uses lazy evaporation - Always
+	 * false for sparse PheromoneFields, even if lazy evaporation was requested.
+	 * 
+	 * @return true if lazy evaporation is used, false otherwise
+	 */
+	public synchronized boolean isLazyEvaporation() {
+		return pheromoneField.isLazyEvaporation();
+	}
+
+	/**
+	 * Adapts the PheromoneField to the current maximum pheromone amount after it
+	 * was changed - Pheromones above a lowered maximum are clamped to it, 16 bit
+	 * fixed-point storage is rescaled to fit a raised maximum.
+	 */
+	public synchronized void applyMaxPheromone() {
+		pheromoneField.setMaxPheromone(GridNode.getMaxPheromone());
+	}
+
+	/**
+	 * Removes all pheromones from the Grid - Holds the lock of the Grid, so it
+	 * never interleaves with a model tick or a snapshot.
+	 */
+	public synchronized void clearPheromones() {
+		pheromoneField.clear();
+	}
+
+	/**
+	 * Sets whether pheromones should only be stored for chunks of cells that hold
+	 * any. This replaces the PheromoneField, so all pheromones are lost. Large maps
+	 * always store their pheromones sparsely.
+	 * 
+	 * @param sparsePheromones true if pheromones should be stored sparsely
+	 */
+	public synchronized void setSparsePheromones(boolean sparsePheromones) {
+		this.sparsePheromones = sparsePheromones;
+		replacePheromoneField();
+	}
+
+	public boolean isSparsePheromones() {
+		return pheromoneField.isSparse();
 	}
 
-	public synchronized int getCellCount() {
+	/**
+	 * Sets how precisely pheromones are stored. This replaces the PheromoneField,
+	 * so all pheromones are lost. The fixed-point scale of
+	 * PheromonePrecision.SHORT fits the current maximum pheromone amount and
+	 * follows it when the maximum changes, see applyMaxPheromone().
+	 * 
+	 * @param pheromonePrecision the precision of every stored pheromone amount
+	 */
+	public synchronized void setPheromonePrecision(PheromonePrecision pheromonePrecision) {
+		setPheromonePrecision(pheromonePrecision, 0);
+	}
+
+	/**
+	 * Sets how precisely pheromones are stored. This replaces the PheromoneField,
+	 * so all pheromones are lost.
+	 * 
+	 * @param pheromonePrecision the precision of every stored pheromone amount
+	 * @param pheromoneScale     the amount of fixed-point steps per unit of
+	 *                           pheromone for PheromonePrecision.SHORT, 0 to fit
+	 *                           the current maximum pheromone amount
+	 */
+	public synchronized void setPheromonePrecision(PheromonePrecision pheromonePrecision, double pheromoneScale) {
+		this.pheromonePrecision = pheromonePrecision;
+		this.pheromoneScale = pheromoneScale;
+		replacePheromoneField();
+	}
+
+	public PheromonePrecision getPheromonePrecision() {
+		return pheromonePrecision;
+	}
+
+	public int getPheromoneChannels() {
+		return pheromoneChannels;
+	}
+
+	/**
+	 * Getter for the PheromoneField that stores the pheromones of all GridNodes.
+	 * 
+	 * @return the current PheromoneField
+	 */
+	public PheromoneField getPheromoneField() {
+		return pheromoneField;
+	}
+
+	public int getCellCount() {
 		return cellCount;
 	}
 
@@ -200,6 +466,17 @@ public class Grid {
 		return initialCellSize;
 	}
 
+	/**
+	 * Gets the width and height the whole Grid is displayed with. This is the cell
+	 * count times the cell size, unless the Grid has more cells than pixels and is
+	 * scaled down to fit.
+	 * 
+	 * @return the size of the displayed Grid in pixels
+	 */
+	public int getDisplaySize() {
+		return displaySize;
+	}
+
 	/**
 	 * Sets the node at a set of given coordinates in the Grid.
 	 * 
@@ -208,57 +485,235 @@ public class Grid {
 	 * @param node the GridNode object to place in the Grid
 	 */
 	public synchronized void setNode(int x, int y, GridNode node) {
-		synchronized (nodes) {
-			nodes[x][y] = node;
-			controller.getPathfinding().findAllNeighbours();
+		// On large maps the terrain is all there is to change
+		if (nodes != null) {
+			// Copy on write - Only the column of the changed GridNode has to be copied
+			GridNode[][] changed = nodes.clone();
+			changed[x] = changed[x].clone();
+			changed[x][y] = node;
+			nodes = changed;
+		}
+
+		terrain[y * cellCount + x] = node.getTerrain();
+		dirtyRegions.markCell(x, y);
+		controller.getPathfinding().updateNeighbours(x, y);
+	}
+
+	/**
+	 * Updates the terrain of the cell of a GridNode, e.g. after it became blocking.
+	 * Does nothing if the GridNode is no longer part of the Grid. On large maps
+	 * every GridNode is a view onto its cell, so the terrain is always updated.
+	 * 
+	 * @param node the GridNode that changed
+	 */
+	void updateTerrain(GridNode node) {
+		int x = node.getX();
+		int y = node.getY();
+		GridNode[][] current = nodes;
+		if (x >= cellCount || y >= cellCount) {
+			return;
+		}
+		if (current == null || current[x][y] == node) {
+			terrain[y * cellCount + x] = node.getTerrain();
+		}
+	}
+
+	/**
+	 * Gets the terrain of a cell without touching its GridNode - Does not acquire
+	 * any locks.
+	 * 
+	 * @param cell the index of the cell (y * cellCount + x)
+	 * @return the terrain byte, see Terrain
+	 */
+	public byte getTerrain(int cell) {
+		return terrain[cell];
+	}
+
+	/**
+	 * Gets the type of GridNode at a cell without touching the GridNode.
+	 * 
+	 * @param cell the index of the cell (y * cellCount + x)
+	 * @return Terrain.TILE, Terrain.NEST or Terrain.FOOD_SOURCE
+	 */
+	public byte getTerrainType(int cell) {
+		return Terrain.getType(terrain[cell]);
+	}
+
+	public boolean isBlocking(int cell) {
+		return Terrain.isBlocking(terrain[cell]);
+	}
+
+	/**
+	 * Checks whether the cell at a set of given coordinates exists and can be
+	 * walked on, without touching its GridNode.
+	 * 
+	 * @param x the x coordinate in the Grid
+	 * @param y the y coordinate in the Grid
+	 * @return true if the coordinates are in bounds and the cell is not blocking
+	 */
+	public boolean isWalkable(int x, int y) {
+		byte[] current = terrain;
+		int count = cellCount;
+		if (x < 0 || y < 0 || x >= count || y >= count || current.length != count * count) {
+			return false;
 		}
+		return !Terrain.isBlocking(current[y * count + x]);
 	}
 
 	/**
-	 * Gets the GridNode from the specified coordinates on the Grid.
+	 * Marks a GridNode as changed, so it is rendered again in the next frame.
+	 * 
+	 * @param x the x coordinate in the Grid
+	 * @param y the y coordinate in the Grid
+	 */
+	synchronized void markDirty(int x, int y) {
+		dirtyRegions.markCell(x, y);
+	}
+
+	/**
+	 * Replaces the Tile at a set of given coordinates with a new FoodSource. Does
+	 * nothing if there is no Tile at the given coordinates.
+	 * 
+	 * @param x the x coordinate in the Grid
+	 * @param y the y coordinate in the Grid
+	 */
+	public synchronized void placeFoodSource(int x, int y) {
+		if (getNode(x, y) instanceof Tile) {
+			FoodSource foodSource = new FoodSource(this, x, y, false);
+			setNode(x, y, foodSource);
+			foodPositions.add(foodSource.getGridPosition());
+		}
+	}
+
+	/**
+	 * Replaces the Tile at a set of given coordinates with a new Nest. Does nothing
+	 * if there is no Tile at the given coordinates.
+	 * 
+	 * @param x the x coordinate in the Grid
+	 * @param y the y coordinate in the Grid
+	 */
+	public synchronized void placeNest(int x, int y) {
+		if (getNode(x, y) instanceof Tile) {
+			Nest nest = new Nest(this, x, y, false);
+			setNode(x, y, nest);
+			nestPositions.add(nest.getGridPosition());
+		}
+	}
+
+	/**
+	 * Gets the GridNode from the specified coordinates on the Grid - Does not
+	 * acquire any locks, so it can be called from any thread at any time.
 	 * 
 	 * @param x the x-coordinate
 	 * @param y the y-coordinate
 	 * @return the GridNode from the specified coordinates, otherwise null if
 	 *         coordinates are out of bounds.
 	 */
-	public synchronized GridNode getNode(int x, int y) {
-		synchronized (nodes) {
-			try {
-				return nodes[x][y];
-			} catch (ArrayIndexOutOfBoundsException e) {
-				return null;
-			}
+	public GridNode getNode(int x, int y) {
+		GridNode[][] current = nodes;
+		if (current == null) {
+			return createView(x, y);
+		}
+		if (x < 0 || y < 0 || x >= current.length || y >= current.length) {
+			return null;
 		}
+		return current[x][y];
 	}
 
 	/**
-	 * Gets the GridNode from the specified Point on the Grid.
+	 * Creates a new GridNode for a cell of a large map, based on its terrain. The
+	 * GridNode is only a view: its pheromones and terrain are stored by the Grid,
+	 * so it does not have to be kept around.
+	 * 
+	 * @param x the x-coordinate
+	 * @param y the y-coordinate
+	 * @return a new GridNode for the specified coordinates, otherwise null if
+	 *         coordinates are out of bounds.
+	 */
+	private GridNode createView(int x, int y) {
+		byte[] currentTerrain = terrain;
+		int count = cellCount;
+		if (x < 0 || y < 0 || x >= count || y >= count || currentTerrain.length != count * count) {
+			return null;
+		}
+
+		int cell = y * count + x;
+		boolean hovering = cell == hoveredCell;
+		GridNode view;
+		switch (Terrain.getType(currentTerrain[cell])) {
+		case Terrain.NEST:
+			view = new Nest(this, x, y, hovering);
+			break;
+		case Terrain.FOOD_SOURCE:
+			view = new FoodSource(this, x, y, hovering);
+			break;
+		default:
+			view = new Tile(this, x, y, hovering);
+			break;
+		}
+		view.blocking = Terrain.isBlocking(currentTerrain[cell]);
+		return view;
+	}
+
+	/**
+	 * Gets the GridNode from the specified Point on the Grid - Does not acquire any
+	 * locks, so it can be called from any thread at any time.
 	 * 
 	 * @param point the Point with x and y coordinates
 	 * @return the GridNode from the specified Point, otherwise null if the Point is
 	 *         out of bounds.
 	 */
-	public synchronized GridNode getNode(Point point) {
-		synchronized (nodes) {
-			try {
-				return nodes[point.x][point.y];
-			} catch (ArrayIndexOutOfBoundsException e) {
-				return null;
-			}
-		}
+	public GridNode getNode(Point point) {
+		return getNode(point.x, point.y);
 	}
 
 	/**
-	 * Getter for the two-dimensional Array of GridNodes that make up the Grid.
+	 * Getter for the two-dimensional Array of GridNodes that make up the Grid. The
+	 * Array is a snapshot that must not be changed - Use setNode() instead.
 	 * 
 	 * @return a two-dimensional Array containing all GridNodes that are currently
-	 *         part of the Grid
+	 *         part of the Grid, null on large maps
 	 */
 	public GridNode[][] getNodes() {
 		return nodes;
 	}
 
+	/**
+	 * Whether this Grid is a large map - Large maps only store the terrain and
+	 * pheromones of their cells in arrays, GridNodes are created on demand by
+	 * getNode() for interactions.
+	 * 
+	 * @return true if no GridNode is stored per cell
+	 */
+	public boolean isLargeMap() {
+		return nodes == null;
+	}
+
+	/**
+	 * Sets the amount of columns or rows from which on a Grid is a large map. Takes
+	 * effect the next time the cell count is set.
+	 * 
+	 * @param largeMapCellCount the smallest cell count of a large map
+	 */
+	public void setLargeMapCellCount(int largeMapCellCount) {
+		this.largeMapCellCount = largeMapCellCount;
+	}
+
+	public int getLargeMapCellCount() {
+		return largeMapCellCount;
+	}
+
+	/**
+	 * Gets how often the Grid was rebuilt, i.e. created, cleared or resized. Cell
+	 * indices (y * cellCount + x) taken before a rebuild must not be used after
+	 * it.
+	 * 
+	 * @return the amount of rebuilds so far
+	 */
+	public synchronized int getRebuildCount() {
+		return rebuildCount;
+	}
+
 	public Controller getController() {
 		return controller;
 	}
@@ -18,18 +18,13 @@ public abstract class GridNode {
 
 	// Used for ACO
 	/*
-	 * This array is initialized with a size of 8, meaning there can be 8 different
-	 * "kinds" of pheromones based on the index.
+	 * The pheromones themselves are stored in the PheromoneField of the Grid, the
+	 * pheromone methods of a GridNode are only a view onto its cell.
 	 */
 	private static double maxPheromone = 500.0D;
-	private double[] pheromoneAmount;
 
 	// Used for A* path finding
-	private GridNode previousNode;
 	private List<GridNode> nearbyNodes;
-	private int gCost;
-	private int fCost;
-	private int hCost;
 	protected boolean blocking;
 
 	// Used for interactions & rendering
@@ -44,15 +39,12 @@ public abstract class GridNode {
 	 * @param grid     the Grid this GridNode is part of
 	 * @param x        the x-coordinate in the Grid
 	 * @param y        the y-coordinate in the Grid
-	 * @param cellSize the cellSize in pixels based on the Grid
-	 * @param offset   the offset in absolute pixels
 	 */
-	protected GridNode(Grid grid, int x, int y, int cellSize, int offset) {
+	protected GridNode(Grid grid, int x, int y) {
 		this.grid = grid;
-		bounds = new Rectangle((x * cellSize) + offset, (y * cellSize) + offset, cellSize, cellSize);
+		bounds = grid.getCellBounds(x, y);
 		gridPosition = new Point(x, y);
 		blocking = false;
-		pheromoneAmount = new double[8];
 	}
 
 	// Abstract methods
@@ -60,15 +52,34 @@ public abstract class GridNode {
 
 	public abstract void render(Graphics g);
 
+	/**
+	 * Gets the color this GridNode is currently displayed in.
+	 * 
+	 * @return the color as packed RGB int
+	 */
+	public abstract int getColorRGB();
+
+	/**
+	 * Gets the type of this GridNode as stored in the terrain of the Grid.
+	 * 
+	 * @return Terrain.TILE, Terrain.NEST or Terrain.FOOD_SOURCE
+	 */
+	public abstract byte getTerrainType();
+
 	public abstract void onClick();
 
 	// On mouse move
 	public void onMouseMove(MouseEvent e) {
+		boolean wasHovering = hovering;
 		if (bounds.contains(e.getX(), e.getY())) {
 			hovering = true;
 		} else {
 			hovering = false;
 		}
+
+		if (hovering != wasHovering) {
+			grid.markDirty(getX(), getY());
+		}
 	}
 
 	// On mouse button release
@@ -78,15 +89,6 @@ public abstract class GridNode {
 		}
 	}
 
-	public void calculateFCost() {
-		fCost = gCost + hCost;
-	}
-
-	public int compareTo(Object obj) {
-		GridNode node = (GridNode) obj;
-		return Integer.compare(fCost, node.fCost);
-	}
-
 	/**
 	 * Sets the bounds for a given GridNode. Bounds are used for rendering and
 	 * interactivity.
@@ -106,15 +108,16 @@ public abstract class GridNode {
 		return bounds;
 	}
 
-	public GridNode getPreviousNode() {
-		return previousNode;
-	}
-
-	public void setPreviousNode(GridNode previousNode) {
-		this.previousNode = previousNode;
-	}
-
+	/**
+	 * Gets the neighbours of this GridNode - They are cached by the pathfinding,
+	 * except on large maps where they are found on every call.
+	 * 
+	 * @return all neighbours in the Grid
+	 */
 	public List<GridNode> getNearbyNodes() {
+		if (nearbyNodes == null && grid.isLargeMap()) {
+			return grid.getController().getPathfinding().findNearbyNodes(this);
+		}
 		return nearbyNodes;
 	}
 
@@ -122,36 +125,23 @@ public abstract class GridNode {
 		this.nearbyNodes = nearbyNodes;
 	}
 
-	public int getGCost() {
-		return gCost;
-	}
-
-	public void setGCost(int gCost) {
-		this.gCost = gCost;
-	}
-
-	public int getFCost() {
-		return fCost;
-	}
-
-	public void setFCost(int fCost) {
-		this.fCost = fCost;
-	}
-
-	public int getHCost() {
-		return hCost;
-	}
-
-	public void setHCost(int hCost) {
-		this.hCost = hCost;
-	}
-
 	public boolean isBlocking() {
 		return blocking;
 	}
 
 	public void setBlocking(boolean blocking) {
 		this.blocking = blocking;
+		grid.updateTerrain(this);
+		grid.markDirty(getX(), getY());
+	}
+
+	/**
+	 * Gets the terrain of this GridNode - Its type and whether it is blocking.
+	 * 
+	 * @return the terrain byte, see Terrain
+	 */
+	public byte getTerrain() {
+		return Terrain.of(getTerrainType(), blocking);
 	}
 
 	/**
@@ -180,6 +170,15 @@ public abstract class GridNode {
 		return hovering;
 	}
 
+	/**
+	 * Gets the index of this GridNode in the PheromoneField of the Grid.
+	 * 
+	 * @return the cell index (y * cellCount + x)
+	 */
+	public int getCellIndex() {
+		return grid.getPheromoneField().index(getX(), getY());
+	}
+
 	/**
 	 * Gets the pheromone concentration of a specific pheromone (specified by index)
 	 * on this GridNode.
@@ -189,11 +188,21 @@ public abstract class GridNode {
 	 *         GridNode
 	 */
 	public double getPheromoneAmount(int index) {
-		return pheromoneAmount[index];
+		return grid.getPheromoneField().get(index, getCellIndex());
 	}
 
+	/**
+	 * Gets a copy of all pheromone concentrations on this GridNode.
+	 * 
+	 * @return an array with one entry per pheromone type
+	 */
 	public double[] getPheromones() {
-		return pheromoneAmount;
+		PheromoneField field = grid.getPheromoneField();
+		double[] pheromones = new double[field.getChannels()];
+		for (int i = 0; i < pheromones.length; i++) {
+			pheromones[i] = field.get(i, getCellIndex());
+		}
+		return pheromones;
 	}
 
 	public static double getMaxPheromone() {
@@ -210,15 +219,7 @@ public abstract class GridNode {
 	 * @return the index of the pheromone with the highest concentration.
 	 */
 	public int getPheromoneWithHighestValue() {
-		double highest = pheromoneAmount[0];
-		int index = 0;
-		for (int i = 0; i < pheromoneAmount.length; i++) {
-			if (pheromoneAmount[i] > highest) {
-				highest = pheromoneAmount[i];
-				index = i;
-			}
-		}
-		return index;
+		return grid.getPheromoneField().getHighestChannel(getCellIndex());
 	}
 
 	/**
@@ -230,12 +231,7 @@ public abstract class GridNode {
 	 *               of the GridNode
 	 */
 	public void increasePheromoneBy(int index, double amount) {
-
-		pheromoneAmount[index] += amount;
-
-		if (pheromoneAmount[index] > getMaxPheromone()) {
-			pheromoneAmount[index] = getMaxPheromone();
-		}
+		grid.getPheromoneField().increase(index, getCellIndex(), amount);
 	}
 
 	/**
@@ -247,22 +243,10 @@ public abstract class GridNode {
 	 *               concentration of the GridNode
 	 */
 	public void decreasePheromoneBy(int index, double amount) {
-
-		pheromoneAmount[index] -= amount;
-
-		if (pheromoneAmount[index] < 0) {
-			pheromoneAmount[index] = 0;
-		}
+		grid.getPheromoneField().decrease(index, getCellIndex(), amount);
 	}
 
 	public void setPheromoneAmount(int index, double amount) {
-		pheromoneAmount[index] = amount;
-
-		if (pheromoneAmount[index] < 0) {
-			pheromoneAmount[index] = 0;
-		}
-		if (pheromoneAmount[index] > getMaxPheromone()) {
-			pheromoneAmount[index] = getMaxPheromone();
-		}
+		grid.getPheromoneField().set(index, getCellIndex(), amount);
 	}
 }
@@ -0,0 +1,157 @@
+package grid;
+
+import java.awt.Rectangle;
+import java.util.BitSet;
+
+/**
+ * The AntVi GridRenderer class - It renders the Grid by writing the color of
+ * every cell straight into an array of pixels with one pixel per cell. The
+ * pixels are then copied into a GridSnapshot, which draws them scaled up to the
+ * cell size in a single call.<br>
+ * The pixels are kept between frames and only dirty chunks are written again.
+ * Chunks that contain pheromone are "live": evaporation changes them on every
+ * tick, so they are written again whenever the PheromoneField has changed as a
+ * whole. Chunks without any pheromone are only written again once something
+ * marks them as dirty.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+class GridRenderer {
+
+	private int cellCount;
+	private int[] pixels;
+	private BitSet liveChunks = new BitSet();
+	private PheromoneField lastField;
+	private DirtyRegions lastRegions;
+	private int lastVersion;
+	private int lastDiffusions;
+	private double lastMaxPheromone;
+
+	// Incremented on every update, every chunk remembers the one it was last written in
+	private int generation;
+	private int[] chunkGenerations;
+
+	/**
+	 * Writes the colors of all changed cells based on their terrain and
+	 * pheromones, without touching any GridNodes. Must be called while holding the
+	 * lock of the Grid.
+	 *
+	 * @param terrain the Terrain of all cells
+	 * @param field   the PheromoneField of the Grid
+	 * @param regions the DirtyRegions of the Grid
+	 */
+	void update(byte[] terrain, PheromoneField field, DirtyRegions regions) {
+		if (pixels == null || cellCount != regions.getCellCount()) {
+			cellCount = regions.getCellCount();
+			pixels = new int[cellCount * cellCount];
+			chunkGenerations = new int[regions.getChunksPerRow() * regions.getChunksPerRow()];
+			regions.markAll();
+		}
+
+		generation++;
+		markChangedChunks(field, regions);
+		updateDirtyChunks(terrain, field, regions);
+	}
+
+	/**
+	 * Copies the current image and layout into a GridSnapshot. Only chunks written
+	 * since the snapshot was last filled are copied.
+	 *
+	 * @param snapshot    the GridSnapshot to fill
+	 * @param cellSize    the size of a cell in pixels
+	 * @param offset      the offset of the Grid in pixels
+	 * @param displaySize the size of the displayed Grid in pixels
+	 * @param selection   the current selection rectangle, or null
+	 */
+	void copyTo(GridSnapshot snapshot, int cellSize, int offset, int displaySize, Rectangle selection) {
+		snapshot.copyPixels(pixels, chunkGenerations, generation, cellCount,
+				(cellCount + DirtyRegions.CHUNK_SIZE - 1) / DirtyRegions.CHUNK_SIZE);
+		snapshot.setLayout(cellSize, offset, displaySize, selection);
+	}
+
+	/**
+	 * Marks all chunks that may have changed through global changes since the last
+	 * frame as dirty.
+	 */
+	private void markChangedChunks(PheromoneField field, DirtyRegions regions) {
+		if (field != lastField || regions != lastRegions || GridNode.getMaxPheromone() != lastMaxPheromone) {
+			// Everything may look different
+			regions.markAll();
+			liveChunks.clear();
+			lastField = field;
+			lastRegions = regions;
+			lastMaxPheromone = GridNode.getMaxPheromone();
+
+		} else if (field.getVersion() != lastVersion) {
+			// Diffusion spreads pheromone by one cell per step, so neighbouring chunks may
+			// have become live as well
+			int spread = (field.getDiffusions() - lastDiffusions + DirtyRegions.CHUNK_SIZE - 1)
+					/ DirtyRegions.CHUNK_SIZE;
+			int chunksPerRow = regions.getChunksPerRow();
+
+			for (int chunk = liveChunks.nextSetBit(0); chunk >= 0; chunk = liveChunks.nextSetBit(chunk + 1)) {
+				int chunkX = chunk % chunksPerRow;
+				int chunkY = chunk / chunksPerRow;
+				for (int y = Math.max(chunkY - spread, 0); y <= Math.min(chunkY + spread, chunksPerRow - 1); y++) {
+					for (int x = Math.max(chunkX - spread, 0); x <= Math.min(chunkX + spread, chunksPerRow - 1); x++) {
+						regions.markChunk(y * chunksPerRow + x);
+					}
+				}
+			}
+		}
+		lastVersion = field.getVersion();
+		lastDiffusions = field.getDiffusions();
+	}
+
+	/**
+	 * Writes the pixels of all dirty chunks and updates which chunks are live.
+	 */
+	private void updateDirtyChunks(byte[] terrain, PheromoneField field, DirtyRegions regions) {
+		int cellCount = regions.getCellCount();
+		int chunksPerRow = regions.getChunksPerRow();
+
+		for (int chunk = regions.nextDirtyChunk(0); chunk >= 0; chunk = regions.nextDirtyChunk(chunk + 1)) {
+			int fromX = (chunk % chunksPerRow) * DirtyRegions.CHUNK_SIZE;
+			int fromY = (chunk / chunksPerRow) * DirtyRegions.CHUNK_SIZE;
+			int toX = Math.min(fromX + DirtyRegions.CHUNK_SIZE, cellCount);
+			int toY = Math.min(fromY + DirtyRegions.CHUNK_SIZE, cellCount);
+			boolean live = false;
+
+			for (int y = fromY; y < toY; y++) {
+				for (int x = fromX; x < toX; x++) {
+					int cell = y * cellCount + x;
+					pixels[cell] = getColorRGB(terrain[cell], field, cell);
+					live = live || hasPheromone(field, cell);
+				}
+			}
+			liveChunks.set(chunk, live);
+			chunkGenerations[chunk] = generation;
+		}
+		regions.clear();
+	}
+
+	/**
+	 * Gets the color a cell is displayed in - The same color its GridNode would
+	 * report.
+	 */
+	private static int getColorRGB(byte terrain, PheromoneField field, int cell) {
+		switch (Terrain.getType(terrain)) {
+		case Terrain.NEST:
+			return Nest.RGB;
+		case Terrain.FOOD_SOURCE:
+			return FoodSource.RGB;
+		default:
+			return Tile.getColorRGB(field, cell, Terrain.isBlocking(terrain));
+		}
+	}
+
+	private static boolean hasPheromone(PheromoneField field, int cell) {
+		for (int channel = 0; channel < field.getChannels(); channel++) {
+			if (field.get(channel, cell) > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,135 @@
+package grid;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * The AntVi GridSnapshot class - A copy of everything needed to draw the Grid
+ * at one point in time: the color of every cell, the layout and the selection
+ * rectangle. It is filled by Grid.snapshot() on the simulation thread and can
+ * then be drawn without touching the Grid, so drawing never waits for a model
+ * tick. A GridSnapshot must not be drawn and filled at the same time.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public final class GridSnapshot {
+
+	private int cellCount;
+	private int cellSize;
+	private int offset;
+	private int displaySize;
+	private BufferedImage image;
+	private int[] pixels;
+	private Rectangle selection;
+
+	// The pixels of the GridRenderer this snapshot was last copied from, and when
+	private int[] source;
+	private int generation;
+
+	/**
+	 * Copies the pixels that changed since this snapshot was last filled.
+	 *
+	 * @param sourcePixels      the pixels of the GridRenderer, one per cell
+	 * @param chunkGenerations  the generation every DirtyRegions chunk was last
+	 *                          written in
+	 * @param sourceGeneration  the current generation of the GridRenderer
+	 * @param sourceCellCount   the amount of columns or rows in the Grid
+	 * @param chunksPerRow      the amount of DirtyRegions chunks per row
+	 */
+	void copyPixels(int[] sourcePixels, int[] chunkGenerations, int sourceGeneration, int sourceCellCount,
+			int chunksPerRow) {
+		if (sourcePixels != source || image == null || cellCount != sourceCellCount) {
+			// Different image, nothing can be reused
+			cellCount = sourceCellCount;
+			image = new BufferedImage(cellCount, cellCount, BufferedImage.TYPE_INT_RGB);
+			pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+			System.arraycopy(sourcePixels, 0, pixels, 0, pixels.length);
+			source = sourcePixels;
+			generation = sourceGeneration;
+			return;
+		}
+
+		for (int chunk = 0; chunk < chunkGenerations.length; chunk++) {
+			if (chunkGenerations[chunk] <= generation) {
+				continue;
+			}
+			int fromX = (chunk % chunksPerRow) * DirtyRegions.CHUNK_SIZE;
+			int fromY = (chunk / chunksPerRow) * DirtyRegions.CHUNK_SIZE;
+			int width = Math.min(DirtyRegions.CHUNK_SIZE, cellCount - fromX);
+			int toY = Math.min(fromY + DirtyRegions.CHUNK_SIZE, cellCount);
+			for (int y = fromY; y < toY; y++) {
+				System.arraycopy(sourcePixels, y * cellCount + fromX, pixels, y * cellCount + fromX, width);
+			}
+		}
+		generation = sourceGeneration;
+	}
+
+	/**
+	 * Copies the layout of the Grid.
+	 *
+	 * @param cellSize    the size of a cell in pixels
+	 * @param offset      the offset of the Grid in pixels
+	 * @param displaySize the size of the displayed Grid in pixels
+	 * @param selection   the current selection rectangle, or null
+	 */
+	void setLayout(int cellSize, int offset, int displaySize, Rectangle selection) {
+		this.cellSize = cellSize;
+		this.offset = offset;
+		this.displaySize = displaySize;
+		this.selection = selection == null ? null : new Rectangle(selection);
+	}
+
+	/**
+	 * Draws the Grid as it was when this snapshot was filled.
+	 *
+	 * @param g the AWT Graphics2D object to be used for rendering
+	 */
+	public void render(Graphics2D g) {
+		if (image == null) {
+			return;
+		}
+
+		// Scaled down if the Grid has more cells than pixels
+		int size = displaySize;
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		g.drawImage(image, offset, offset, size, size, null);
+
+		// Draw the gaps between GridNodes
+		if (cellSize > 1) {
+			g.setColor(Color.GRAY);
+			for (int i = 0; i <= cellCount; i++) {
+				int line = offset + i * cellSize;
+				g.drawLine(line, offset, line, offset + size);
+				g.drawLine(offset, line, offset + size, line);
+			}
+		}
+
+		// Draw the selection rectangle
+		if (selection != null) {
+			g.setColor(Color.RED);
+			g.setStroke(new BasicStroke(2.0F));
+			g.draw(selection);
+		}
+	}
+
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Gets the color of a cell as it was when this snapshot was filled.
+	 *
+	 * @param x the x-coordinate in the Grid
+	 * @param y the y-coordinate in the Grid
+	 * @return the color as packed RGB int
+	 */
+	public int getColorRGB(int x, int y) {
+		return pixels[y * cellCount + x];
+	}
+}
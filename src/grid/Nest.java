@@ -12,18 +12,20 @@ import java.awt.event.KeyEvent;
  */
 public class Nest extends GridNode {
 
+	// RGB brown
+	private static final Color COLOR = new Color(133, 87, 35);
+	static final int RGB = COLOR.getRGB();
+
 	/**
 	 * Creates a Nest.
 	 * 
 	 * @param grid     the Grid this Nest is part of
 	 * @param x        the x-coordinate in the Grid
 	 * @param y        the y-coordinate in the Grid
-	 * @param cellSize the cellSize based on the Grid
-	 * @param offset   the offset in absolute pixels
 	 * @param hovering whether the mouse is hovering over this GridNode
 	 */
-	protected Nest(Grid grid, int x, int y, int cellSize, int offset, boolean hovering) {
-		super(grid, x, y, cellSize, offset);
+	protected Nest(Grid grid, int x, int y, boolean hovering) {
+		super(grid, x, y);
 		this.hovering = hovering;
 		blocking = false;
 	}
@@ -33,20 +35,28 @@ public class Nest extends GridNode {
 		if (grid.getNestPositions().size() > 1 && hovering
 				&& grid.getController().getKeyManager().keyJustPressed(KeyEvent.VK_N)) {
 			// Remove existing Nest, but always keep at least one
-			grid.setNode(getX(), getY(),
-					new Tile(grid, getX(), getY(), grid.getCellSize(), grid.getOffset(), hovering));
+			grid.setNode(getX(), getY(), new Tile(grid, getX(), getY(), hovering));
 			grid.getNestPositions().remove(getGridPosition());
 		}
 	}
 
 	@Override
 	public void render(Graphics g) {
-		// RGB brown
-		g.setColor(new Color(133, 87, 35));
+		g.setColor(COLOR);
 		// Display this Nest
 		g.fillRect(bounds.x + 1, bounds.y + 1, bounds.width - 1, bounds.height - 1);
 	}
 
+	@Override
+	public int getColorRGB() {
+		return RGB;
+	}
+
+	@Override
+	public byte getTerrainType() {
+		return Terrain.NEST;
+	}
+
 	@Override
 	public void onClick() {
 		// Nothing to do.
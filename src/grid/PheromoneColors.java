@@ -0,0 +1,57 @@
+package grid;
+
+import java.awt.Color;
+
+/**
+ * The AntVi PheromoneColors class - A lookup table with the display color of
+ * every pheromone at every saturation level, so colors don't have to be
+ * calculated or allocated while rendering.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public final class PheromoneColors {
+
+	// There can be 8 different pheromones based on the index
+	private static final int CHANNELS = 8;
+	private static final int SATURATION_LEVELS = 256;
+	private static final int[] TABLE = new int[CHANNELS * SATURATION_LEVELS];
+
+	static {
+		for (int channel = 0; channel < CHANNELS; channel++) {
+			// Calculate hue based on index
+			float hue = 0.49F + 0.1F * channel;
+			for (int level = 0; level < SATURATION_LEVELS; level++) {
+				float saturation = (float) level / (SATURATION_LEVELS - 1);
+				TABLE[channel * SATURATION_LEVELS + level] = Color.HSBtoRGB(hue, saturation, 1);
+			}
+		}
+	}
+
+	private PheromoneColors() {
+		// Only static methods
+	}
+
+	/**
+	 * Gets the saturation level of a pheromone amount, based on the maximum
+	 * pheromone amount.
+	 *
+	 * @param amount the amount of pheromone
+	 * @return the saturation level (0 to 255)
+	 */
+	public static int getLevel(double amount) {
+		int level = (int) (amount / GridNode.getMaxPheromone() * (SATURATION_LEVELS - 1));
+		return Math.max(0, Math.min(level, SATURATION_LEVELS - 1));
+	}
+
+	/**
+	 * Gets the display color of a pheromone amount.
+	 *
+	 * @param channel the pheromone type index (0 to 7)
+	 * @param amount  the amount of pheromone
+	 * @return the color as packed RGB int
+	 */
+	public static int getRGB(int channel, double amount) {
+		return TABLE[channel * SATURATION_LEVELS + getLevel(amount)];
+	}
+}
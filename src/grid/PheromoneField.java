@@ -0,0 +1,540 @@
+package grid;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The AntVi PheromoneField class - The backing store for the pheromones of all
+ * GridNodes of a Grid. Cells are addressed by their index (y * cellCount + x).
+ * The values are either kept in a dense array covering every cell, or sparsely
+ * in chunks that are only allocated where there is pheromone. Either way every
+ * value is stored with a fixed PheromonePrecision.<br>
+ * In lazy evaporation mode the global evaporation only advances an evaporation
+ * clock. Every cell remembers the clock value it was last updated at and the
+ * accumulated evaporation is only applied once the cell is read or changed.
+ * Since evaporation is a plain subtraction clamped at 0, this gives exactly the
+ * same results as evaporating every cell on every tick.<br>
+ * Diffusion is double-buffered: every cell of the new generation is calculated
+ * from the old generation only, so the result does not depend on the order in
+ * which cells are visited or on the amount of threads used. In sparse mode
+ * chunks that are known to be empty are skipped and every other chunk is
+ * diffused on its own array.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public class PheromoneField {
+
+	// Roughly how many cells a single diffusion task should process
+	private static final int CELLS_PER_DIFFUSION_TASK = 16_384;
+
+	private final int cellCount;
+	private final int cells;
+	private final int channels;
+	private final boolean sparse;
+	private final PheromonePrecision precision;
+	// Whether the fixed-point scale follows the maximum pheromone amount
+	private final boolean automaticScale;
+	private double scale;
+	private PheromoneStorage values;
+	private PheromoneStorage buffer;
+	private boolean lazyEvaporation;
+	private double evaporationClock;
+	private double[] cellClocks;
+	private DirtyRegions dirtyRegions;
+	private int version;
+	private int diffusions;
+
+	/**
+	 * Creates an empty, dense PheromoneField.
+	 *
+	 * @param cellCount the amount of columns or rows in the Grid
+	 * @param channels  the amount of different pheromones per cell
+	 */
+	public PheromoneField(int cellCount, int channels) {
+		this(cellCount, channels, false);
+	}
+
+	/**
+	 * Creates an empty PheromoneField.
+	 *
+	 * @param cellCount the amount of columns or rows in the Grid
+	 * @param channels  the amount of different pheromones per cell
+	 * @param sparse    whether memory should only be allocated for chunks of cells
+	 *                  that hold pheromone
+	 */
+	public PheromoneField(int cellCount, int channels, boolean sparse) {
+		this(cellCount, channels, sparse, PheromonePrecision.DOUBLE, 0);
+	}
+
+	/**
+	 * Creates an empty PheromoneField.
+	 *
+	 * @param cellCount the amount of columns or rows in the Grid
+	 * @param channels  the amount of different pheromones per cell
+	 * @param sparse    whether memory should only be allocated for chunks of cells
+	 *                  that hold pheromone
+	 * @param precision how precisely every value is stored
+	 * @param scale     the amount of fixed-point steps per unit of pheromone for
+	 *                  PheromonePrecision.SHORT, 0 to fit the current maximum
+	 *                  pheromone amount
+	 */
+	public PheromoneField(int cellCount, int channels, boolean sparse, PheromonePrecision precision, double scale) {
+		this.cellCount = cellCount;
+		this.channels = channels;
+		this.sparse = sparse;
+		this.precision = precision;
+		cells = cellCount * cellCount;
+
+		automaticScale = scale <= 0;
+		if (automaticScale) {
+			scale = ShortPheromoneStorage.getDefaultScale();
+		}
+		this.scale = scale;
+		if (sparse) {
+			values = new SparsePheromoneStorage(cellCount, channels, precision, scale);
+		} else {
+			values = precision.createStorage(cells, channels, scale);
+		}
+	}
+
+	/**
+	 * Calculates the index of a cell from its Grid coordinates.
+	 *
+	 * @param x the x-coordinate in the Grid
+	 * @param y the y-coordinate in the Grid
+	 * @return the index of the cell
+	 */
+	public int index(int x, int y) {
+		return y * cellCount + x;
+	}
+
+	/**
+	 * Gets the concentration of a specific pheromone on a cell.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the cell
+	 * @return the amount of pheromone of the given type on the cell
+	 */
+	public double get(int channel, int cell) {
+		if (lazyEvaporation) {
+			// Apply the pending evaporation without writing it back
+			double value = values.get(channel, cell) - (evaporationClock - cellClocks[cell]);
+			return value < 0 ? 0 : value;
+		}
+		return values.get(channel, cell);
+	}
+
+	/**
+	 * Sets the concentration of a specific pheromone on a cell. The amount is
+	 * clamped between 0 and the maximum pheromone amount.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the cell
+	 * @param amount  the new amount of pheromone
+	 */
+	public void set(int channel, int cell, double amount) {
+		sync(cell);
+		double old = values.get(channel, cell);
+		double value = Math.max(0, Math.min(amount, GridNode.getMaxPheromone()));
+		values.set(channel, cell, value);
+		changed(cell, old, value);
+	}
+
+	/**
+	 * Increases the concentration of a specific pheromone on a cell, but never
+	 * above the maximum pheromone amount.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the cell
+	 * @param amount  the amount that should be added
+	 */
+	public void increase(int channel, int cell, double amount) {
+		sync(cell);
+		double old = values.get(channel, cell);
+		double value = old + amount;
+
+		if (value > GridNode.getMaxPheromone()) {
+			value = GridNode.getMaxPheromone();
+		}
+		values.set(channel, cell, value);
+		changed(cell, old, value);
+	}
+
+	/**
+	 * Decreases the concentration of a specific pheromone on a cell, but never
+	 * below 0.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the cell
+	 * @param amount  the amount that should be subtracted
+	 */
+	public void decrease(int channel, int cell, double amount) {
+		sync(cell);
+		double old = values.get(channel, cell);
+		double value = old - amount;
+
+		if (value < 0) {
+			value = 0;
+		}
+		values.set(channel, cell, value);
+		changed(cell, old, value);
+	}
+
+	/**
+	 * Marks a cell as dirty if a single change made it cross a visible color
+	 * level.
+	 *
+	 * @param cell     the index of the cell
+	 * @param oldValue the amount before the change
+	 * @param newValue the amount after the change
+	 */
+	private void changed(int cell, double oldValue, double newValue) {
+		if (dirtyRegions != null && PheromoneColors.getLevel(oldValue) != PheromoneColors.getLevel(newValue)) {
+			dirtyRegions.markCell(cell);
+		}
+	}
+
+	/**
+	 * Gets the index of the pheromone with the highest concentration on a cell.
+	 *
+	 * @param cell the index of the cell
+	 * @return the index of the pheromone with the highest concentration
+	 */
+	public int getHighestChannel(int cell) {
+		int index = 0;
+		double highest = get(0, cell);
+		for (int channel = 1; channel < channels; channel++) {
+			double value = get(channel, cell);
+			if (value > highest) {
+				highest = value;
+				index = channel;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Globally decreases all pheromones on all cells by the same amount, but never
+	 * below 0. Runs over the whole backing store in memory order, unless lazy
+	 * evaporation is used. In sparse mode only allocated chunks are visited and
+	 * chunks without any pheromone left are released.
+	 *
+	 * @param amount the amount that should be subtracted
+	 */
+	public void evaporate(double amount) {
+		version++;
+		if (lazyEvaporation) {
+			evaporationClock += amount;
+			return;
+		}
+
+		values.evaporate(amount);
+	}
+
+	/**
+	 * Decreases all pheromones above a maximum to the maximum, e.g. after the
+	 * maximum pheromone amount was lowered.
+	 *
+	 * @param max the maximum amount of pheromone per cell
+	 */
+	public void clamp(double max) {
+		flush();
+		version++;
+		values.clamp(max);
+	}
+
+	/**
+	 * Adapts this field to a new maximum pheromone amount. With
+	 * PheromonePrecision.SHORT and an automatic scale, all values are converted to
+	 * the scale that fits the new maximum, so amounts above the old maximum can be
+	 * stored. An explicit scale is kept, amounts above its range saturate. All
+	 * pheromones above the new maximum are clamped to it.
+	 *
+	 * @param max the new maximum amount of pheromone per cell
+	 */
+	public void setMaxPheromone(double max) {
+		if (precision == PheromonePrecision.SHORT) {
+			if (automaticScale) {
+				flush();
+				scale = ShortPheromoneStorage.getScale(max);
+				values.setScale(scale);
+				if (buffer != null) {
+					buffer.setScale(scale);
+				}
+			} else if (max > ShortPheromoneStorage.getMaxValue(scale)) {
+				System.out.println(String.format(
+						"The maximum pheromone amount %.1f exceeds the fixed-point range of %.1f, larger amounts saturate.",
+						max, ShortPheromoneStorage.getMaxValue(scale)));
+			}
+		}
+		clamp(max);
+	}
+
+	/**
+	 * Gets the name of the kernel used to sweep over dense pheromone arrays.
+	 *
+	 * @return "scalar" or "vector" followed by the vector size
+	 */
+	public static String getKernelName() {
+		return PheromoneKernel.getInstance().getName();
+	}
+
+	/**
+	 * Lets every pheromone flow to the surrounding cells using a 3x3 stencil. Each
+	 * cell gives away (amount * rate) to each of its neighbours and receives the
+	 * same share of each neighbour's amount. Additionally, the given evaporation
+	 * amount is subtracted from every cell. The Grid is split into stripes of rows
+	 * that are processed on the given ForkJoinPool.
+	 *
+	 * @param rate        the share of a pheromone that flows to each neighbour
+	 * @param evaporation the amount that should be subtracted from every cell
+	 * @param pool        the ForkJoinPool used to process the stripes
+	 */
+	public void diffuse(double rate, double evaporation, ForkJoinPool pool) {
+		flush();
+		if (buffer == null) {
+			buffer = values.createEmpty();
+		}
+		buffer.prepareOverwrite();
+
+		// Stripes are aligned, so no two threads write to memory allocated on demand
+		int alignment = values.getRowAlignment();
+		int stripeRows = Math.max(1, CELLS_PER_DIFFUSION_TASK / cellCount);
+		stripeRows = (stripeRows + alignment - 1) / alignment * alignment;
+		int stripes = (cellCount + stripeRows - 1) / stripeRows;
+		pool.invoke(new DiffusionTask(0, stripes, stripeRows, rate, evaporation, GridNode.getMaxPheromone()));
+
+		// Swap generations
+		PheromoneStorage temp = values;
+		values = buffer;
+		buffer = temp;
+		version++;
+		diffusions++;
+	}
+
+	/**
+	 * Calculates the next diffusion generation for a stripe of rows.
+	 *
+	 * @param fromRow     the first row of the stripe
+	 * @param toRow       the row after the last row of the stripe
+	 * @param rate        the share of a pheromone that flows to each neighbour
+	 * @param evaporation the amount that should be subtracted from every cell
+	 * @param max         the maximum amount of pheromone per cell
+	 */
+	private void diffuseRows(int fromRow, int toRow, double rate, double evaporation, double max) {
+		if (sparse) {
+			((SparsePheromoneStorage) values).diffuseRows((SparsePheromoneStorage) buffer, fromRow, toRow, rate,
+					evaporation, max);
+			return;
+		}
+		PheromoneStorage source = values;
+		PheromoneStorage target = buffer;
+
+		for (int y = fromRow; y < toRow; y++) {
+			int top = Math.max(y - 1, 0);
+			int bottom = Math.min(y + 1, cellCount - 1);
+
+			for (int channel = 0; channel < channels; channel++) {
+				for (int x = 0; x < cellCount; x++) {
+					int left = Math.max(x - 1, 0);
+					int right = Math.min(x + 1, cellCount - 1);
+					int self = y * cellCount + x;
+					double value = source.get(channel, self);
+
+					double sum = 0;
+					for (int ny = top; ny <= bottom; ny++) {
+						int row = ny * cellCount;
+						for (int nx = left; nx <= right; nx++) {
+							sum += source.get(channel, row + nx);
+						}
+					}
+					sum -= value;
+					int neighbours = (bottom - top + 1) * (right - left + 1) - 1;
+
+					double result = value + (sum - neighbours * value) * rate - evaporation;
+					if (result < 0) {
+						result = 0;
+					} else if (result > max) {
+						result = max;
+					}
+					target.set(channel, self, result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits the stripes of rows of the Grid until a single stripe is left, which
+	 * is processed by a single thread.
+	 */
+	private class DiffusionTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int fromStripe;
+		private final int toStripe;
+		private final int stripeRows;
+		private final double rate;
+		private final double evaporation;
+		private final double max;
+
+		DiffusionTask(int fromStripe, int toStripe, int stripeRows, double rate, double evaporation, double max) {
+			this.fromStripe = fromStripe;
+			this.toStripe = toStripe;
+			this.stripeRows = stripeRows;
+			this.rate = rate;
+			this.evaporation = evaporation;
+			this.max = max;
+		}
+
+		@Override
+		protected void compute() {
+			if (toStripe - fromStripe <= 1) {
+				diffuseRows(fromStripe * stripeRows, Math.min(toStripe * stripeRows, cellCount), rate, evaporation, max);
+				return;
+			}
+
+			int middle = (fromStripe + toStripe) >>> 1;
+			invokeAll(new DiffusionTask(fromStripe, middle, stripeRows, rate, evaporation, max),
+					new DiffusionTask(middle, toStripe, stripeRows, rate, evaporation, max));
+		}
+	}
+
+	/**
+	 * Applies the pending evaporation of a single cell in lazy evaporation mode.
+	 *
+	 * @param cell the index of the cell
+	 */
+	private void sync(int cell) {
+		if (!lazyEvaporation) {
+			return;
+		}
+
+		double pending = evaporationClock - cellClocks[cell];
+		if (pending > 0) {
+			for (int channel = 0; channel < channels; channel++) {
+				double value = values.get(channel, cell) - pending;
+				values.set(channel, cell, value < 0 ? 0 : value);
+			}
+		}
+		cellClocks[cell] = evaporationClock;
+	}
+
+	/**
+	 * Applies the pending evaporation of all cells, so that the backing array is
+	 * up to date. Has no effect if lazy evaporation is not used.
+	 */
+	public void flush() {
+		if (!lazyEvaporation) {
+			return;
+		}
+
+		for (int cell = 0; cell < cells; cell++) {
+			sync(cell);
+		}
+	}
+
+	/**
+	 * Sets all pheromones on all cells to 0.
+	 */
+	public void clear() {
+		version++;
+		values.clear();
+		if (lazyEvaporation) {
+			Arrays.fill(cellClocks, evaporationClock);
+		}
+	}
+
+	/**
+	 * Whether the evaporation is only applied once a cell is read or changed.
+	 *
+	 * @return true if lazy evaporation is used, false otherwise
+	 */
+	public boolean isLazyEvaporation() {
+		return lazyEvaporation;
+	}
+
+	/**
+	 * Sets whether the evaporation should only be applied once a cell is read or
+	 * changed, instead of sweeping over all cells on every evaporation. Has no
+	 * effect in sparse mode: its sweeps only cover allocated chunks anyway, while
+	 * the evaporation clocks would have to cover every cell.
+	 *
+	 * @param lazyEvaporation true if lazy evaporation should be used
+	 */
+	public void setLazyEvaporation(boolean lazyEvaporation) {
+		if (this.lazyEvaporation == lazyEvaporation || sparse) {
+			return;
+		}
+
+		if (lazyEvaporation) {
+			cellClocks = new double[cells];
+			evaporationClock = 0;
+		} else {
+			flush();
+			cellClocks = null;
+		}
+		this.lazyEvaporation = lazyEvaporation;
+	}
+
+	/**
+	 * Sets the DirtyRegions that single-cell changes are reported to. Global
+	 * changes are only reported through the version and the diffusion count.
+	 *
+	 * @param dirtyRegions the DirtyRegions of the Grid
+	 */
+	void setDirtyRegions(DirtyRegions dirtyRegions) {
+		this.dirtyRegions = dirtyRegions;
+	}
+
+	/**
+	 * Gets a counter that changes whenever all cells may have changed at once,
+	 * e.g. through evaporation.
+	 *
+	 * @return the current version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the amount of times diffusion has been applied to this field.
+	 *
+	 * @return the diffusion count
+	 */
+	public int getDiffusions() {
+		return diffusions;
+	}
+
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Whether memory is only allocated for chunks of cells that hold pheromone.
+	 *
+	 * @return true if the field is sparse
+	 */
+	public boolean isSparse() {
+		return sparse;
+	}
+
+	public PheromonePrecision getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Gets the amount of chunks that hold pheromone in sparse mode.
+	 *
+	 * @return the amount of allocated chunks, 0 if the field is dense
+	 */
+	public int getAllocatedChunks() {
+		return sparse ? ((SparsePheromoneStorage) values).getAllocatedChunks() : 0;
+	}
+
+	public int getChannels() {
+		return channels;
+	}
+}
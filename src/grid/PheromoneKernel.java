@@ -0,0 +1,125 @@
+package grid;
+
+/**
+ * The AntVi PheromoneKernel class - The loops that sweep over a whole dense
+ * pheromone array, i.e. the global evaporation and clamping to the maximum
+ * pheromone amount. This class processes one value at a time. If the
+ * VectorPheromoneKernel from the optional source root src-vector was compiled
+ * and the jdk.incubator.vector module is available (see README), it processes
+ * several values per instruction instead. It is loaded by reflection, so src
+ * compiles and runs without it.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+class PheromoneKernel {
+
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+	private static final String VECTOR_KERNEL = "grid.VectorPheromoneKernel";
+
+	private static final PheromoneKernel INSTANCE = load();
+
+	PheromoneKernel() {
+		// Only created by load()
+	}
+
+	/**
+	 * Gets the kernel used by all dense PheromoneStorages.
+	 *
+	 * @return the vector kernel if the module is available, the scalar kernel
+	 *         otherwise
+	 */
+	static PheromoneKernel getInstance() {
+		return INSTANCE;
+	}
+
+	private static PheromoneKernel load() {
+		if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+			try {
+				return (PheromoneKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				System.err.println("Vector kernel not available, using scalar kernel: " + e);
+			}
+		}
+		return new PheromoneKernel();
+	}
+
+	/**
+	 * Gets a short description of this kernel, e.g. for benchmarks.
+	 *
+	 * @return the name of the kernel
+	 */
+	String getName() {
+		return "scalar";
+	}
+
+	/**
+	 * Decreases all values by the same amount, but never below 0.
+	 *
+	 * @param values the values to change
+	 * @param amount the amount that should be subtracted
+	 * @return true if any value is still above 0 afterwards
+	 */
+	boolean evaporate(double[] values, double amount) {
+		boolean remaining = false;
+		for (int i = 0; i < values.length; i++) {
+			double value = values[i] - amount;
+			if (value > 0) {
+				values[i] = value;
+				remaining = true;
+			} else {
+				values[i] = 0;
+			}
+		}
+		return remaining;
+	}
+
+	/**
+	 * Decreases all values by the same amount, but never below 0.
+	 *
+	 * @param values the values to change
+	 * @param amount the amount that should be subtracted
+	 * @return true if any value is still above 0 afterwards
+	 */
+	boolean evaporate(float[] values, float amount) {
+		boolean remaining = false;
+		for (int i = 0; i < values.length; i++) {
+			float value = values[i] - amount;
+			if (value > 0) {
+				values[i] = value;
+				remaining = true;
+			} else {
+				values[i] = 0;
+			}
+		}
+		return remaining;
+	}
+
+	/**
+	 * Decreases all values above a maximum to the maximum.
+	 *
+	 * @param values the values to change
+	 * @param max    the maximum value
+	 */
+	void clamp(double[] values, double max) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] > max) {
+				values[i] = max;
+			}
+		}
+	}
+
+	/**
+	 * Decreases all values above a maximum to the maximum.
+	 *
+	 * @param values the values to change
+	 * @param max    the maximum value
+	 */
+	void clamp(float[] values, float max) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] > max) {
+				values[i] = max;
+			}
+		}
+	}
+}
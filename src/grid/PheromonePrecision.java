@@ -0,0 +1,51 @@
+package grid;
+
+/**
+ * The AntVi PheromonePrecision enum - How many bytes a PheromoneField uses to
+ * store a single pheromone amount. Pheromone amounts never exceed the maximum
+ * pheromone amount, so less precise storage rarely makes a visible difference,
+ * but it lets the memory-bound evaporation and diffusion sweeps touch fewer
+ * bytes.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public enum PheromonePrecision {
+
+	// 8 bytes per value, exact
+	DOUBLE(8),
+	// 4 bytes per value, about 7 significant digits
+	FLOAT(4),
+	// 2 bytes per value, fixed-point with a configurable scale
+	SHORT(2);
+
+	private final int bytesPerValue;
+
+	PheromonePrecision(int bytesPerValue) {
+		this.bytesPerValue = bytesPerValue;
+	}
+
+	public int getBytesPerValue() {
+		return bytesPerValue;
+	}
+
+	/**
+	 * Creates a dense PheromoneStorage with this precision.
+	 *
+	 * @param cells    the amount of cells
+	 * @param channels the amount of different pheromones per cell
+	 * @param scale    the amount of fixed-point steps per unit of pheromone, only
+	 *                 used by SHORT
+	 * @return the new storage
+	 */
+	PheromoneStorage createStorage(int cells, int channels, double scale) {
+		switch (this) {
+		case FLOAT:
+			return new FloatPheromoneStorage(cells, channels);
+		case SHORT:
+			return new ShortPheromoneStorage(cells, channels, scale);
+		default:
+			return new DoublePheromoneStorage(cells, channels);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package grid;
+
+/**
+ * The AntVi PheromoneStorage class - The backing store a PheromoneField keeps
+ * its values in. Values are addressed by pheromone channel and cell index and
+ * are never negative. The PheromoneField takes care of clamping, lazy
+ * evaporation and diffusion, a storage only decides how the values are laid out
+ * in memory.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+abstract class PheromoneStorage {
+
+	/**
+	 * Gets a stored value.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the cell
+	 * @return the stored amount of pheromone
+	 */
+	abstract double get(int channel, int cell);
+
+	/**
+	 * Stores a value.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the cell
+	 * @param value   the amount of pheromone, never negative
+	 */
+	abstract void set(int channel, int cell, double value);
+
+	/**
+	 * Copies the values of consecutive cells into an array.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the first cell
+	 * @param target  the array the values are copied to
+	 * @param offset  the index in the array of the first value
+	 * @param length  the amount of cells
+	 */
+	void getRange(int channel, int cell, double[] target, int offset, int length) {
+		for (int i = 0; i < length; i++) {
+			target[offset + i] = get(channel, cell + i);
+		}
+	}
+
+	/**
+	 * Stores the values of consecutive cells from an array.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the first cell
+	 * @param source  the array holding the values, never negative
+	 * @param offset  the index in the array of the first value
+	 * @param length  the amount of cells
+	 */
+	void setRange(int channel, int cell, double[] source, int offset, int length) {
+		for (int i = 0; i < length; i++) {
+			set(channel, cell + i, source[offset + i]);
+		}
+	}
+
+	/**
+	 * Decreases all stored values by the same amount, but never below 0.
+	 *
+	 * @param amount the amount that should be subtracted
+	 * @return true if any value is still above 0 afterwards
+	 */
+	abstract boolean evaporate(double amount);
+
+	/**
+	 * Decreases all stored values above a maximum to the maximum.
+	 *
+	 * @param max the maximum amount of pheromone
+	 */
+	abstract void clamp(double max);
+
+	/**
+	 * Changes the amount of fixed-point steps per unit of pheromone, converting
+	 * all stored values to the new scale.
+	 *
+	 * @param scale the new amount of fixed-point steps per unit of pheromone
+	 */
+	void setScale(double scale) {
+		// Only fixed-point storages have a scale
+	}
+
+	/**
+	 * Sets all stored values to 0.
+	 */
+	abstract void clear();
+
+	/**
+	 * Creates an empty storage with the same layout, e.g. to diffuse into.
+	 *
+	 * @return the new storage
+	 */
+	abstract PheromoneStorage createEmpty();
+
+	/**
+	 * Prepares this storage to be overwritten by a diffusion step. Dense storages
+	 * are written completely and can keep their old values, while sparse storages
+	 * skip empty chunks and have to be emptied.
+	 */
+	void prepareOverwrite() {
+		// Dense storages are overwritten completely
+	}
+
+	/**
+	 * Gets the amount of rows that must be processed by the same thread when
+	 * diffusing, because they share memory that is allocated on demand.
+	 *
+	 * @return the amount of rows, diffusion stripes are a multiple of it
+	 */
+	int getRowAlignment() {
+		return 1;
+	}
+}
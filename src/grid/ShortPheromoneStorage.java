@@ -0,0 +1,152 @@
+package grid;
+
+import java.util.Arrays;
+
+/**
+ * The AntVi ShortPheromoneStorage class - A dense PheromoneStorage with one
+ * unsigned 16 bit fixed-point number per cell and pheromone, a quarter of the
+ * size of a DoublePheromoneStorage. A value is stored as the amount of
+ * pheromone multiplied by the scale and rounded, so the scale decides both the
+ * resolution and the largest amount that can be stored (65535 / scale).
+ * Evaporation amounts are rounded to the same resolution.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+final class ShortPheromoneStorage extends PheromoneStorage {
+
+	private static final int MAX_STEPS = 0xFFFF;
+
+	private final int cells;
+	private final int channels;
+	private double scale;
+	private double inverseScale;
+	private final short[] values;
+
+	/**
+	 * Creates an empty ShortPheromoneStorage.
+	 *
+	 * @param cells    the amount of cells
+	 * @param channels the amount of different pheromones per cell
+	 * @param scale    the amount of fixed-point steps per unit of pheromone
+	 */
+	ShortPheromoneStorage(int cells, int channels, double scale) {
+		this.cells = cells;
+		this.channels = channels;
+		this.scale = scale;
+		inverseScale = 1 / scale;
+		values = new short[cells * channels];
+	}
+
+	/**
+	 * Calculates the scale that fits the current maximum pheromone amount into
+	 * the available fixed-point steps.
+	 *
+	 * @return the amount of fixed-point steps per unit of pheromone
+	 */
+	static double getDefaultScale() {
+		return getScale(GridNode.getMaxPheromone());
+	}
+
+	/**
+	 * Calculates the scale that fits a maximum pheromone amount into the
+	 * available fixed-point steps.
+	 *
+	 * @param maxPheromone the maximum amount of pheromone per cell
+	 * @return the amount of fixed-point steps per unit of pheromone
+	 */
+	static double getScale(double maxPheromone) {
+		return MAX_STEPS / maxPheromone;
+	}
+
+	/**
+	 * Gets the largest amount of pheromone that can be stored with a scale.
+	 *
+	 * @param scale the amount of fixed-point steps per unit of pheromone
+	 * @return the largest amount of pheromone
+	 */
+	static double getMaxValue(double scale) {
+		return MAX_STEPS / scale;
+	}
+
+	@Override
+	double get(int channel, int cell) {
+		return (values[channel * cells + cell] & MAX_STEPS) * inverseScale;
+	}
+
+	@Override
+	void set(int channel, int cell, double value) {
+		// Values are never negative, so adding a half before truncating rounds them
+		double steps = value * scale + 0.5;
+		values[channel * cells + cell] = (short) (steps < MAX_STEPS ? (int) steps : MAX_STEPS);
+	}
+
+	@Override
+	void getRange(int channel, int cell, double[] target, int offset, int length) {
+		int start = channel * cells + cell;
+		for (int i = 0; i < length; i++) {
+			target[offset + i] = (values[start + i] & MAX_STEPS) * inverseScale;
+		}
+	}
+
+	@Override
+	void setRange(int channel, int cell, double[] source, int offset, int length) {
+		int start = channel * cells + cell;
+		for (int i = 0; i < length; i++) {
+			double steps = source[offset + i] * scale + 0.5;
+			values[start + i] = (short) (steps < MAX_STEPS ? (int) steps : MAX_STEPS);
+		}
+	}
+
+	@Override
+	boolean evaporate(double amount) {
+		int evaporation = (int) Math.min(Math.round(amount * scale), MAX_STEPS);
+		boolean remaining = false;
+		for (int i = 0; i < values.length; i++) {
+			int value = (values[i] & MAX_STEPS) - evaporation;
+			if (value > 0) {
+				values[i] = (short) value;
+				remaining = true;
+			} else {
+				values[i] = 0;
+			}
+		}
+		return remaining;
+	}
+
+	/**
+	 * Converts all values to a new scale. Values are rounded to the nearest step of
+	 * the new scale, so a coarser scale loses resolution.
+	 */
+	@Override
+	void setScale(double scale) {
+		double factor = scale / this.scale;
+		for (int i = 0; i < values.length; i++) {
+			double steps = (values[i] & MAX_STEPS) * factor + 0.5;
+			values[i] = (short) (steps < MAX_STEPS ? (int) steps : MAX_STEPS);
+		}
+		this.scale = scale;
+		inverseScale = 1 / scale;
+	}
+
+	@Override
+	void clamp(double max) {
+		double steps = max * scale + 0.5;
+		int maxSteps = steps < MAX_STEPS ? (int) steps : MAX_STEPS;
+		for (int i = 0; i < values.length; i++) {
+			if ((values[i] & MAX_STEPS) > maxSteps) {
+				values[i] = (short) maxSteps;
+			}
+		}
+	}
+
+	@Override
+	void clear() {
+		Arrays.fill(values, (short) 0);
+	}
+
+	@Override
+	PheromoneStorage createEmpty() {
+		return new ShortPheromoneStorage(cells, channels, scale);
+	}
+}
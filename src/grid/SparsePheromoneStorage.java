@@ -0,0 +1,334 @@
+package grid;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * The AntVi SparsePheromoneStorage class - A PheromoneStorage that divides the
+ * Grid into square chunks and only allocates memory for chunks that hold any
+ * pheromone. A chunk is allocated on the first deposit and released again once
+ * all of its pheromone has evaporated, so memory and evaporation cost grow
+ * with the area covered by trails instead of the area of the Grid. Chunks
+ * released by diffusion are kept for reuse, since the next diffusion step
+ * needs about as many again.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+final class SparsePheromoneStorage extends PheromoneStorage {
+
+	static final int CHUNK_SIZE = 64;
+	private static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+	// The width of a chunk together with the border it reads when diffusing
+	private static final int TILE_SIZE = CHUNK_SIZE + 2;
+	// The amount of empty chunks kept for reuse after they evaporated
+	private static final int MAX_FREE_CHUNKS = 16;
+
+	private final int cellCount;
+	private final int channels;
+	private final PheromonePrecision precision;
+	private double scale;
+	private final int chunksPerRow;
+	private final PheromoneStorage[] chunks;
+	private final ArrayDeque<PheromoneStorage> freeChunks = new ArrayDeque<>();
+
+	/**
+	 * Creates an empty SparsePheromoneStorage.
+	 *
+	 * @param cellCount the amount of columns or rows in the Grid
+	 * @param channels  the amount of different pheromones per cell
+	 * @param precision the precision of the chunks
+	 * @param scale     the fixed-point scale of the chunks, see PheromonePrecision
+	 */
+	SparsePheromoneStorage(int cellCount, int channels, PheromonePrecision precision, double scale) {
+		this.cellCount = cellCount;
+		this.channels = channels;
+		this.precision = precision;
+		this.scale = scale;
+		chunksPerRow = (cellCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		chunks = new PheromoneStorage[chunksPerRow * chunksPerRow];
+	}
+
+	@Override
+	double get(int channel, int cell) {
+		int x = cell % cellCount;
+		int y = cell / cellCount;
+		PheromoneStorage chunk = chunks[(y / CHUNK_SIZE) * chunksPerRow + x / CHUNK_SIZE];
+		if (chunk == null) {
+			return 0;
+		}
+		return chunk.get(channel, (y % CHUNK_SIZE) * CHUNK_SIZE + x % CHUNK_SIZE);
+	}
+
+	@Override
+	void set(int channel, int cell, double value) {
+		int x = cell % cellCount;
+		int y = cell / cellCount;
+		int index = (y / CHUNK_SIZE) * chunksPerRow + x / CHUNK_SIZE;
+		PheromoneStorage chunk = chunks[index];
+		if (chunk == null) {
+			if (value <= 0) {
+				// Empty chunks stay unallocated
+				return;
+			}
+			chunk = allocate(index);
+		}
+		chunk.set(channel, (y % CHUNK_SIZE) * CHUNK_SIZE + x % CHUNK_SIZE, value);
+	}
+
+	/**
+	 * Evaporates all allocated chunks and releases the ones that are empty
+	 * afterwards.
+	 */
+	@Override
+	boolean evaporate(double amount) {
+		boolean remaining = false;
+		for (int index = 0; index < chunks.length; index++) {
+			if (chunks[index] != null) {
+				if (chunks[index].evaporate(amount)) {
+					remaining = true;
+				} else {
+					release(index, freeChunks.size() < MAX_FREE_CHUNKS);
+				}
+			}
+		}
+		return remaining;
+	}
+
+	@Override
+	void clamp(double max) {
+		for (PheromoneStorage chunk : chunks) {
+			if (chunk != null) {
+				chunk.clamp(max);
+			}
+		}
+	}
+
+	@Override
+	synchronized void setScale(double scale) {
+		this.scale = scale;
+		for (PheromoneStorage chunk : chunks) {
+			if (chunk != null) {
+				chunk.setScale(scale);
+			}
+		}
+		for (PheromoneStorage chunk : freeChunks) {
+			chunk.setScale(scale);
+		}
+	}
+
+	@Override
+	void clear() {
+		releaseAll(false);
+	}
+
+	@Override
+	PheromoneStorage createEmpty() {
+		return new SparsePheromoneStorage(cellCount, channels, precision, scale);
+	}
+
+	@Override
+	void prepareOverwrite() {
+		releaseAll(true);
+	}
+
+	/**
+	 * Calculates the next diffusion generation for a stripe of chunk rows, see
+	 * PheromoneField.diffuse. Each active chunk is copied into a tile together
+	 * with a border of one cell, where only the border is read through the chunk
+	 * lookup. The 3x3 stencil then runs on the tile without any lookups and the
+	 * rows are written straight into the matching chunk of the target. Cells
+	 * outside of the Grid stay 0 in the tile, which does not change the sums.
+	 *
+	 * @param target      the storage of the next generation, emptied beforehand
+	 * @param fromRow     the first row of the stripe, a multiple of CHUNK_SIZE
+	 * @param toRow       the row after the last row of the stripe
+	 * @param rate        the share of a pheromone that flows to each neighbour
+	 * @param evaporation the amount that should be subtracted from every cell
+	 * @param max         the maximum amount of pheromone per cell
+	 */
+	void diffuseRows(SparsePheromoneStorage target, int fromRow, int toRow, double rate, double evaporation,
+			double max) {
+		double[] tile = new double[TILE_SIZE * TILE_SIZE];
+		double[] row = new double[CHUNK_SIZE];
+
+		for (int chunkY = fromRow / CHUNK_SIZE; chunkY * CHUNK_SIZE < toRow; chunkY++) {
+			int fromY = chunkY * CHUNK_SIZE;
+			int height = Math.min(CHUNK_SIZE, cellCount - fromY);
+
+			for (int chunkX = 0; chunkX < chunksPerRow; chunkX++) {
+				if (!isActive(chunkX, chunkY)) {
+					// Nothing there and nothing flowing in
+					continue;
+				}
+				int fromX = chunkX * CHUNK_SIZE;
+				int width = Math.min(CHUNK_SIZE, cellCount - fromX);
+				int index = chunkY * chunksPerRow + chunkX;
+				PheromoneStorage chunk = chunks[index];
+
+				for (int channel = 0; channel < channels; channel++) {
+					fillTile(tile, chunk, channel, fromX, fromY, width, height);
+
+					for (int y = 0; y < height; y++) {
+						int gridY = fromY + y;
+						int rows = 1 + (gridY > 0 ? 1 : 0) + (gridY < cellCount - 1 ? 1 : 0);
+						int center = (y + 1) * TILE_SIZE + 1;
+						boolean empty = true;
+
+						for (int x = 0; x < width; x++) {
+							int gridX = fromX + x;
+							int columns = 1 + (gridX > 0 ? 1 : 0) + (gridX < cellCount - 1 ? 1 : 0);
+							int above = center + x - TILE_SIZE;
+							int self = center + x;
+							int below = center + x + TILE_SIZE;
+							double value = tile[self];
+
+							// Same order of additions as a plain sweep over the Grid
+							double sum = 0;
+							sum += tile[above - 1];
+							sum += tile[above];
+							sum += tile[above + 1];
+							sum += tile[self - 1];
+							sum += value;
+							sum += tile[self + 1];
+							sum += tile[below - 1];
+							sum += tile[below];
+							sum += tile[below + 1];
+							sum -= value;
+							int neighbours = rows * columns - 1;
+
+							double result = value + (sum - neighbours * value) * rate - evaporation;
+							if (result < 0) {
+								result = 0;
+							} else if (result > max) {
+								result = max;
+							}
+							row[x] = result;
+							if (result > 0) {
+								empty = false;
+							}
+						}
+
+						PheromoneStorage targetChunk = target.chunks[index];
+						if (targetChunk == null) {
+							if (empty) {
+								// Empty chunks stay unallocated
+								continue;
+							}
+							targetChunk = target.allocate(index);
+						}
+						targetChunk.setRange(channel, y * CHUNK_SIZE, row, 0, width);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies a chunk and the cells bordering it into a tile. The chunk itself is
+	 * copied row by row, the border is read through the chunk lookup and cells
+	 * outside of the Grid are set to 0.
+	 */
+	private void fillTile(double[] tile, PheromoneStorage chunk, int channel, int fromX, int fromY, int width,
+			int height) {
+		if (chunk == null) {
+			Arrays.fill(tile, 0);
+		} else {
+			for (int y = 0; y < height; y++) {
+				chunk.getRange(channel, y * CHUNK_SIZE, tile, (y + 1) * TILE_SIZE + 1, width);
+			}
+		}
+
+		for (int x = -1; x <= width; x++) {
+			tile[x + 1] = getBorder(channel, fromX + x, fromY - 1);
+			tile[(height + 1) * TILE_SIZE + x + 1] = getBorder(channel, fromX + x, fromY + height);
+		}
+		for (int y = 0; y < height; y++) {
+			tile[(y + 1) * TILE_SIZE] = getBorder(channel, fromX - 1, fromY + y);
+			tile[(y + 1) * TILE_SIZE + width + 1] = getBorder(channel, fromX + width, fromY + y);
+		}
+	}
+
+	private double getBorder(int channel, int x, int y) {
+		if (x < 0 || y < 0 || x >= cellCount || y >= cellCount) {
+			return 0;
+		}
+		return get(channel, y * cellCount + x);
+	}
+
+	/**
+	 * Whether a chunk may hold any pheromone, or may receive some from its
+	 * neighbours by diffusion.
+	 *
+	 * @param chunkX the column of the chunk
+	 * @param chunkY the row of the chunk
+	 * @return false if the chunk and its neighbours are unallocated
+	 */
+	private boolean isActive(int chunkX, int chunkY) {
+
+		// Pheromone may flow in from any neighbouring chunk
+		for (int ny = Math.max(chunkY - 1, 0); ny <= Math.min(chunkY + 1, chunksPerRow - 1); ny++) {
+			for (int nx = Math.max(chunkX - 1, 0); nx <= Math.min(chunkX + 1, chunksPerRow - 1); nx++) {
+				if (chunks[ny * chunksPerRow + nx] != null) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	int getRowAlignment() {
+		return CHUNK_SIZE;
+	}
+
+	/**
+	 * Gets the amount of chunks that currently hold pheromone.
+	 *
+	 * @return the amount of allocated chunks
+	 */
+	int getAllocatedChunks() {
+		int allocated = 0;
+		for (PheromoneStorage chunk : chunks) {
+			if (chunk != null) {
+				allocated++;
+			}
+		}
+		return allocated;
+	}
+
+	private synchronized PheromoneStorage allocate(int index) {
+		PheromoneStorage chunk = freeChunks.poll();
+		if (chunk == null) {
+			chunk = precision.createStorage(CHUNK_CELLS, channels, scale);
+		}
+		chunks[index] = chunk;
+		return chunk;
+	}
+
+	/**
+	 * Releases an allocated chunk.
+	 *
+	 * @param index the index of the chunk
+	 * @param keep  whether the chunk should be kept for reuse
+	 */
+	private synchronized void release(int index, boolean keep) {
+		if (keep) {
+			// Kept chunks are cleared right away, so they can be reused as they are
+			chunks[index].clear();
+			freeChunks.push(chunks[index]);
+		}
+		chunks[index] = null;
+	}
+
+	private void releaseAll(boolean keep) {
+		for (int index = 0; index < chunks.length; index++) {
+			if (chunks[index] != null) {
+				release(index, keep);
+			}
+		}
+		if (!keep) {
+			freeChunks.clear();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package grid;
+
+/**
+ * The AntVi Terrain class - The terrain of a cell packed into a single byte:
+ * the type of GridNode in the lower bits and whether it is blocking in an
+ * additional bit. The Grid keeps the terrain of all cells in a byte array, so
+ * the simulation can look at the terrain without touching any GridNodes.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public final class Terrain {
+
+	public static final byte TILE = 0;
+	public static final byte NEST = 1;
+	public static final byte FOOD_SOURCE = 2;
+
+	// Set in addition to the type if a cell can not be walked on
+	public static final byte BLOCKING = 4;
+
+	private static final byte TYPE_MASK = 3;
+
+	private Terrain() {
+		// Only static methods
+	}
+
+	/**
+	 * Gets the type of GridNode from a terrain byte.
+	 *
+	 * @param terrain the terrain of a cell
+	 * @return TILE, NEST or FOOD_SOURCE
+	 */
+	public static byte getType(byte terrain) {
+		return (byte) (terrain & TYPE_MASK);
+	}
+
+	public static boolean isBlocking(byte terrain) {
+		return (terrain & BLOCKING) != 0;
+	}
+
+	/**
+	 * Packs a type of GridNode and whether it is blocking into a terrain byte.
+	 *
+	 * @param type     TILE, NEST or FOOD_SOURCE
+	 * @param blocking whether the cell can not be walked on
+	 * @return the terrain byte
+	 */
+	public static byte of(byte type, boolean blocking) {
+		return (byte) (blocking ? type | BLOCKING : type);
+	}
+}
@@ -13,18 +13,18 @@ import java.awt.event.KeyEvent;
  */
 public class Tile extends GridNode {
 
+	private static final int BLOCKING_RGB = Color.DARK_GRAY.getRGB();
+
 	/**
 	 * Creates a Tile.
 	 * 
 	 * @param grid     the Grid this Tile is part of
 	 * @param x        the x-coordinate in the Grid
 	 * @param y        the y-coordinate in the Grid
-	 * @param cellSize the cellSize based on the Grid
-	 * @param offset   the offset in absolute pixels
 	 * @param hovering whether the mouse is hovering over this GridNode
 	 */
-	Tile(Grid grid, int x, int y, int cellSize, int offset, boolean hovering) {
-		super(grid, x, y, cellSize, offset);
+	Tile(Grid grid, int x, int y, boolean hovering) {
+		super(grid, x, y);
 		this.hovering = hovering;
 	}
 
@@ -32,19 +32,17 @@ public class Tile extends GridNode {
 	public void tick() {
 
 		// Collect variables
-		int cellSize = grid.getCellSize();
-		int offset = grid.getOffset();
 		boolean foodSourceButton = grid.getController().getKeyManager().keyJustPressed(KeyEvent.VK_F);
 		boolean nestButton = grid.getController().getKeyManager().keyJustPressed(KeyEvent.VK_N);
 
 		if (hovering && foodSourceButton) {
 			// Replace this Tile with a new FoodSource
-			grid.setNode(getX(), getY(), new FoodSource(grid, getX(), getY(), cellSize, offset, hovering));
+			grid.setNode(getX(), getY(), new FoodSource(grid, getX(), getY(), hovering));
 			grid.getFoodPositions().add(getGridPosition());
 		}
 		if (hovering && nestButton) {
 			// Replace this Tile with a Nest
-			grid.setNode(getX(), getY(), new Nest(grid, getX(), getY(), cellSize, offset, hovering));
+			grid.setNode(getX(), getY(), new Nest(grid, getX(), getY(), hovering));
 			// Update nest position list
 			grid.getNestPositions().add(getGridPosition());
 		}
@@ -69,9 +67,36 @@ public class Tile extends GridNode {
 		g.fillRect(bounds.x + 1, bounds.y + 1, bounds.width - 1, bounds.height - 1);
 	}
 
+	@Override
+	public int getColorRGB() {
+		return getColorRGB(grid.getPheromoneField(), getCellIndex(), isBlocking());
+	}
+
+	/**
+	 * Gets the color a Tile is displayed in, without needing the Tile itself.
+	 * 
+	 * @param field    the PheromoneField of the Grid
+	 * @param cell     the index of the cell of the Tile
+	 * @param blocking whether the Tile is blocking
+	 * @return the color as packed RGB int
+	 */
+	static int getColorRGB(PheromoneField field, int cell, boolean blocking) {
+		if (blocking) {
+			return BLOCKING_RGB;
+		}
+		// Color of the most prevalent pheromone, saturated based on its amount
+		int index = field.getHighestChannel(cell);
+		return PheromoneColors.getRGB(index, field.get(index, cell));
+	}
+
+	@Override
+	public byte getTerrainType() {
+		return Terrain.TILE;
+	}
+
 	@Override
 	public void onClick() {
-		blocking = !blocking;
+		setBlocking(!blocking);
 	}
 
 }
@@ -1,45 +1,60 @@
 package model;
 
-import java.awt.Graphics;
 import java.awt.Point;
-import java.awt.geom.AffineTransform;
-import java.awt.image.AffineTransformOp;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.Random;
 
-import javax.imageio.ImageIO;
-
 import grid.GridNode;
-import grid.Tile;
-import utils.GridNodeWithPercentage;
+import grid.PheromoneField;
+import grid.Terrain;
 
 /**
- * The AntVi Ant class - It contains methods to create Ant behaviour with, as
- * well as a render method for graphics.
+ * The AntVi Ant class - It contains methods to create Ant behaviour with. Ants
+ * are drawn from an AntSnapshot.
  * 
  * @author Max Ehringhausen
  *
  */
 public class Ant {
 
-	private static final Random rand = new Random();
+	/*
+	 * The (dx, dy) offsets of the five GridNodes an Ant looks at, per Facing
+	 * (indexed by ordinal): left, left front, front, right front, right.
+	 */
+	private static final int[][] FRONT_OFFSETS = {
+			{ -1, 0, -1, -1, 0, -1, 1, -1, 1, 0 }, // UP
+			{ 1, 0, 1, 1, 0, 1, -1, 1, -1, 0 }, // DOWN
+			{ 0, 1, -1, 1, -1, 0, -1, -1, 0, -1 }, // LEFT
+			{ 0, -1, 1, -1, 1, 0, 1, 1, 0, 1 }, // RIGHT
+			{ -1, 1, -1, 0, -1, -1, 0, -1, 1, -1 }, // UPLEFT
+			{ -1, -1, 0, -1, 1, -1, 1, 0, 1, 1 }, // UPRIGHT
+			{ 1, 1, 0, 1, -1, 1, -1, 0, -1, -1 }, // DOWNLEFT
+			{ 1, -1, 1, 0, 1, 1, 0, 1, -1, 1 } // DOWNRIGHT
+	};
+	// The (dx, dy) offsets of all eight surrounding GridNodes
+	private static final int[] SURROUNDING_OFFSETS = { -1, 0, -1, 1, -1, -1, 1, 0, 1, 1, 1, -1, 0, 1, 0, -1 };
+	// The Facing after a move, indexed by (dy + 1) * 3 + (dx + 1)
+	private static final Facing[] FACING_BY_DIRECTION = { Facing.UPLEFT, Facing.UP, Facing.UPRIGHT, Facing.LEFT, null,
+			Facing.RIGHT, Facing.DOWNLEFT, Facing.DOWN, Facing.DOWNRIGHT };
+
 	private static int shortTermMemorySize = 15;
 	private Model model;
-	private BufferedImage icon;
+	private Random random;
 	private Point position;
 	private boolean carryingFood;
 	private int stepsWalked;
-	private Queue<GridNode> lastWalked = new LinkedList<>();
+	private CellMemory lastWalked = new CellMemory(shortTermMemorySize + 1);
 	private Facing facing;
 
+	// Reusable buffer for the cell indices of the GridNodes the Ant could move to
+	private int[] candidates = new int[8];
+	private int candidateCount;
+	// Reusable buffer for the weights when picking a candidate by chance
+	private double[] weights = new double[8];
+
 	public enum Facing {
 		UP, DOWN, LEFT, RIGHT, UPLEFT, UPRIGHT, DOWNLEFT, DOWNRIGHT
 	}
@@ -52,241 +67,131 @@ public class Ant {
 	 */
 	public Ant(Model model, Point position) {
 		this.model = model;
-		this.position = position;
-		lastWalked.add(model.getGrid().getNode(position));
-		try {
-			icon = ImageIO.read(new File("src/ant.png"));
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		this.position = new Point(position);
+		random = new Random(model.nextAntSeed());
+		lastWalked.add(getCell());
 
 		// Initially face a random direction
 		final List<Facing> directions = Collections.unmodifiableList(Arrays.asList(Facing.values()));
-		this.facing = directions.get(rand.nextInt(directions.size()));
+		this.facing = directions.get(random.nextInt(directions.size()));
 	}
 
 	/**
-	 * This is called by the model and renders the ant with its current position and
-	 * rotation.
+	 * Looks at the three GridNodes in front of the Ant based on the direction it is
+	 * facing. All of them that are walkable and that the Ant has not walked on
+	 * recently are stored as candidates. Does not allocate any objects.
 	 * 
-	 * @param g the Graphics object used for rendering
+	 * @return the amount of candidates (0 to 3)
 	 */
-	public void render(Graphics g) {
-
-		int gridCellSize = model.getGrid().getCellSize();
-		int initialGridCellSize = model.getGrid().getInitialCellSize();
+	public int senseThreeInFront() {
+		return sense(FRONT_OFFSETS[facing.ordinal()], 1, 4);
+	}
 
-		double scalingPercentage = ((double) gridCellSize / initialGridCellSize);
-		int offset = model.getGrid().getOffset();
-		double rotation = Math.toRadians(0);
+	/**
+	 * Looks at the five GridNodes in front and at the sides of the Ant based on the
+	 * direction it is facing. All of them that are walkable and that the Ant has
+	 * not walked on recently are stored as candidates. Does not allocate any
+	 * objects.
+	 * 
+	 * @return the amount of candidates (0 to 5)
+	 */
+	public int senseFiveInFront() {
+		return sense(FRONT_OFFSETS[facing.ordinal()], 0, 5);
+	}
 
-		// All +45 because the icon is tilted (oops)
-		switch (facing) {
-		case UP:
-			rotation = Math.toRadians(45.0);
-			break;
-		case DOWN:
-			rotation = Math.toRadians(225.0);
-			break;
-		case LEFT:
-			rotation = Math.toRadians(315.0);
-			break;
-		case RIGHT:
-			rotation = Math.toRadians(135.0);
-			break;
-		case UPLEFT:
-			rotation = Math.toRadians(360.0);
-			break;
-		case UPRIGHT:
-			rotation = Math.toRadians(90.0);
-			break;
-		case DOWNLEFT:
-			rotation = Math.toRadians(270.0);
-			break;
-		case DOWNRIGHT:
-			rotation = Math.toRadians(180.0);
-			break;
+	/**
+	 * Looks at all GridNodes around the Ant. All of them that are walkable and that
+	 * the Ant has not walked on recently are stored as candidates. If there are
+	 * none, the short-term memory is cleared and the Ant looks again. Does not
+	 * allocate any objects.
+	 * 
+	 * @return the amount of candidates (0 to 8)
+	 */
+	public int senseSurrounding() {
+		if (sense(SURROUNDING_OFFSETS, 0, 8) == 0) {
+			// Maybe short-term memory is blocking all ways
+			// Clear the short-term memory and try again
+			lastWalked.clear();
+			sense(SURROUNDING_OFFSETS, 0, 8);
 		}
+		return candidateCount;
+	}
 
-		int drawLocationX = (int) ((position.x * gridCellSize + offset) + (gridCellSize / 2D)
-				- (scalingPercentage * icon.getWidth() / 2));
-		int drawLocationY = (int) ((position.y * gridCellSize + offset) + (gridCellSize / 2D)
-				- (scalingPercentage * icon.getWidth() / 2));
-
-		double imageCenter = scalingPercentage * icon.getWidth() / 2D;
+	/**
+	 * Stores the cell indices of all walkable GridNodes at the given offsets from
+	 * the Ant's position as candidates, skipping those in short-term memory.
+	 * 
+	 * @param offsets the (dx, dy) offsets
+	 * @param from    the first offset pair to check
+	 * @param to      the offset pair after the last one to check
+	 * @return the amount of candidates
+	 */
+	private int sense(int[] offsets, int from, int to) {
+		int cellCount = model.getGrid().getCellCount();
+		candidateCount = 0;
+
+		for (int i = from; i < to; i++) {
+			int x = position.x + offsets[2 * i];
+			int y = position.y + offsets[2 * i + 1];
+			if (model.getGrid().isWalkable(x, y) && !lastWalked.contains(y * cellCount + x)) {
+				candidates[candidateCount++] = y * cellCount + x;
+			}
+		}
+		return candidateCount;
+	}
 
-		AffineTransform transform = AffineTransform.getRotateInstance(rotation, imageCenter, imageCenter);
-		transform.scale(scalingPercentage, scalingPercentage);
+	/**
+	 * Gets the cell index of a candidate found by the last sense method call.
+	 * 
+	 * @param index the index of the candidate (0 to candidate count - 1)
+	 * @return the cell index (y * cellCount + x) of the candidate
+	 */
+	public int getCandidate(int index) {
+		return candidates[index];
+	}
 
-		AffineTransformOp transformOperation = new AffineTransformOp(transform, AffineTransformOp.TYPE_BILINEAR);
+	public int getCandidateCount() {
+		return candidateCount;
+	}
 
-		g.drawImage(transformOperation.filter(icon, null), drawLocationX, drawLocationY, null);
+	/**
+	 * Gets the candidates found by the last sense method call as GridNodes.
+	 * 
+	 * @return a new List containing the candidate GridNodes
+	 */
+	private List<GridNode> getCandidateNodes() {
+		int cellCount = model.getGrid().getCellCount();
+		List<GridNode> nodes = new ArrayList<>(candidateCount);
+		for (int i = 0; i < candidateCount; i++) {
+			nodes.add(model.getGrid().getNode(candidates[i] % cellCount, candidates[i] / cellCount));
+		}
+		return nodes;
 	}
 
 	/**
 	 * Finds the three GridNodes in front of an Ant based on the direction it is
-	 * facing.
+	 * facing. Allocates a new List, see senseThreeInFront() for a version that
+	 * does not.
 	 * 
 	 * @return a List with a maximum of three GridNodes that are walkable and in
 	 *         front of the Ant
 	 */
 	public List<GridNode> getThreeInFront() {
-
-		ArrayList<GridNode> lookingAt = new ArrayList<>();
-		Point leftFront = null;
-		Point front = null;
-		Point rightFront = null;
-
-		switch (facing) {
-		case UP:
-			leftFront = new Point(position.x - 1, position.y - 1);
-			front = new Point(position.x, position.y - 1);
-			rightFront = new Point(position.x + 1, position.y - 1);
-			break;
-		case DOWN:
-			leftFront = new Point(position.x + 1, position.y + 1);
-			front = new Point(position.x, position.y + 1);
-			rightFront = new Point(position.x - 1, position.y + 1);
-			break;
-		case LEFT:
-			leftFront = new Point(position.x - 1, position.y + 1);
-			front = new Point(position.x - 1, position.y);
-			rightFront = new Point(position.x - 1, position.y - 1);
-			break;
-		case RIGHT:
-			leftFront = new Point(position.x + 1, position.y - 1);
-			front = new Point(position.x + 1, position.y);
-			rightFront = new Point(position.x + 1, position.y + 1);
-			break;
-		case UPLEFT:
-			leftFront = new Point(position.x - 1, position.y);
-			front = new Point(position.x - 1, position.y - 1);
-			rightFront = new Point(position.x, position.y - 1);
-			break;
-		case UPRIGHT:
-			leftFront = new Point(position.x, position.y - 1);
-			front = new Point(position.x + 1, position.y - 1);
-			rightFront = new Point(position.x + 1, position.y);
-			break;
-		case DOWNLEFT:
-			leftFront = new Point(position.x, position.y + 1);
-			front = new Point(position.x - 1, position.y + 1);
-			rightFront = new Point(position.x - 1, position.y);
-			break;
-		case DOWNRIGHT:
-			leftFront = new Point(position.x + 1, position.y);
-			front = new Point(position.x + 1, position.y + 1);
-			rightFront = new Point(position.x, position.y + 1);
-			break;
-		}
-
-		if (model.getGrid().getNode(leftFront) != null && !model.getGrid().getNode(leftFront).isBlocking()) {
-			lookingAt.add(model.getGrid().getNode(leftFront));
-		}
-		if (model.getGrid().getNode(front) != null && !model.getGrid().getNode(front).isBlocking()) {
-			lookingAt.add(model.getGrid().getNode(front));
-		}
-		if (model.getGrid().getNode(rightFront) != null && !model.getGrid().getNode(rightFront).isBlocking()) {
-			lookingAt.add(model.getGrid().getNode(rightFront));
-		}
-
-		lookingAt.removeAll(lastWalked);
-		return lookingAt;
+		senseThreeInFront();
+		return getCandidateNodes();
 	}
 
 	/**
 	 * Finds the five GridNodes in front and at the sides of an Ant based on the
-	 * direction it is facing.
+	 * direction it is facing. Allocates a new List, see senseFiveInFront() for a
+	 * version that does not.
 	 * 
 	 * @return a List with a maximum of five GridNodes that are walkable and in
 	 *         front of the Ant
 	 */
 	public List<GridNode> getFiveInFront() {
-
-		ArrayList<GridNode> lookingAt = new ArrayList<>();
-		Point left = null;
-		Point leftFront = null;
-		Point front = null;
-		Point rightFront = null;
-		Point right = null;
-
-		switch (facing) {
-		case UP:
-			left = new Point(position.x - 1, position.y);
-			leftFront = new Point(position.x - 1, position.y - 1);
-			front = new Point(position.x, position.y - 1);
-			rightFront = new Point(position.x + 1, position.y - 1);
-			right = new Point(position.x + 1, position.y);
-			break;
-		case DOWN:
-			left = new Point(position.x + 1, position.y);
-			leftFront = new Point(position.x + 1, position.y + 1);
-			front = new Point(position.x, position.y + 1);
-			rightFront = new Point(position.x - 1, position.y + 1);
-			right = new Point(position.x - 1, position.y);
-			break;
-		case LEFT:
-			left = new Point(position.x, position.y + 1);
-			leftFront = new Point(position.x - 1, position.y + 1);
-			front = new Point(position.x - 1, position.y);
-			rightFront = new Point(position.x - 1, position.y - 1);
-			right = new Point(position.x, position.y - 1);
-			break;
-		case RIGHT:
-			left = new Point(position.x, position.y - 1);
-			leftFront = new Point(position.x + 1, position.y - 1);
-			front = new Point(position.x + 1, position.y);
-			rightFront = new Point(position.x + 1, position.y + 1);
-			right = new Point(position.x, position.y + 1);
-			break;
-		case UPLEFT:
-			left = new Point(position.x - 1, position.y + 1);
-			leftFront = new Point(position.x - 1, position.y);
-			front = new Point(position.x - 1, position.y - 1);
-			rightFront = new Point(position.x, position.y - 1);
-			right = new Point(position.x + 1, position.y - 1);
-			break;
-		case UPRIGHT:
-			left = new Point(position.x - 1, position.y - 1);
-			leftFront = new Point(position.x, position.y - 1);
-			front = new Point(position.x + 1, position.y - 1);
-			rightFront = new Point(position.x + 1, position.y);
-			right = new Point(position.x + 1, position.y + 1);
-			break;
-		case DOWNLEFT:
-			left = new Point(position.x + 1, position.y + 1);
-			leftFront = new Point(position.x, position.y + 1);
-			front = new Point(position.x - 1, position.y + 1);
-			rightFront = new Point(position.x - 1, position.y);
-			right = new Point(position.x - 1, position.y - 1);
-			break;
-		case DOWNRIGHT:
-			left = new Point(position.x + 1, position.y - 1);
-			leftFront = new Point(position.x + 1, position.y);
-			front = new Point(position.x + 1, position.y + 1);
-			rightFront = new Point(position.x, position.y + 1);
-			right = new Point(position.x - 1, position.y + 1);
-			break;
-		}
-
-		if (model.getGrid().getNode(left) != null && !model.getGrid().getNode(left).isBlocking()) {
-			lookingAt.add(model.getGrid().getNode(left));
-		}
-		if (model.getGrid().getNode(leftFront) != null && !model.getGrid().getNode(leftFront).isBlocking()) {
-			lookingAt.add(model.getGrid().getNode(leftFront));
-		}
-		if (model.getGrid().getNode(front) != null && !model.getGrid().getNode(front).isBlocking()) {
-			lookingAt.add(model.getGrid().getNode(front));
-		}
-		if (model.getGrid().getNode(rightFront) != null && !model.getGrid().getNode(rightFront).isBlocking()) {
-			lookingAt.add(model.getGrid().getNode(rightFront));
-		}
-		if (model.getGrid().getNode(right) != null && !model.getGrid().getNode(right).isBlocking()) {
-			lookingAt.add(model.getGrid().getNode(right));
-		}
-
-		lookingAt.removeAll(lastWalked);
-		return lookingAt;
+		senseFiveInFront();
+		return getCandidateNodes();
 	}
 
 	/**
@@ -351,55 +256,35 @@ public class Ant {
 		if (gn == null) {
 			return;
 		}
+		moveTo(gn.getCellIndex());
+	}
 
-		// Ant remembers the last 16 GridNodes it walked on
-		// Small short-term memory
-		if (lastWalked.size() > shortTermMemorySize) {
-			lastWalked.poll();
-		}
-		lastWalked.add(gn);
-
-		Point targetPos = gn.getGridPosition();
-
-		if (targetPos.x < position.x && targetPos.y < position.y) {
-			// UPLEFT
-			setPosition(targetPos);
-			facing = Facing.UPLEFT;
-
-		} else if (targetPos.x > position.x && targetPos.y > position.y) {
-			// DOWNRIGHT
-			setPosition(targetPos);
-			facing = Facing.DOWNRIGHT;
-
-		} else if (targetPos.x > position.x && targetPos.y < position.y) {
-			// UPRIGHT
-			setPosition(targetPos);
-			facing = Facing.UPRIGHT;
-
-		} else if (targetPos.x < position.x && targetPos.y > position.y) {
-			// DOWNLEFT
-			setPosition(targetPos);
-			facing = Facing.DOWNLEFT;
+	/**
+	 * Moves the ant to a specific cell - Rotation and memory are handled based on
+	 * where the ant came from.
+	 * 
+	 * @param cell the cell index (y * cellCount + x) to move to
+	 */
+	public void moveTo(int cell) {
 
-		} else if (targetPos.x == position.x && targetPos.y < position.y) {
-			// UP
-			setPosition(targetPos);
-			facing = Facing.UP;
+		int cellCount = model.getGrid().getCellCount();
+		if (cell < 0 || cell >= cellCount * cellCount) {
+			return;
+		}
+		int targetX = cell % cellCount;
+		int targetY = cell / cellCount;
 
-		} else if (targetPos.x == position.x && targetPos.y > position.y) {
-			// DOWN
-			setPosition(targetPos);
-			facing = Facing.DOWN;
+		// Ant remembers the last 16 GridNodes it walked on
+		// Small short-term memory
+		lastWalked.setCapacity(shortTermMemorySize + 1);
+		lastWalked.add(cell);
 
-		} else if (targetPos.x < position.x && targetPos.y == position.y) {
-			// LEFT
-			setPosition(targetPos);
-			facing = Facing.LEFT;
+		int dx = Integer.signum(targetX - position.x);
+		int dy = Integer.signum(targetY - position.y);
 
-		} else if (targetPos.x > position.x && targetPos.y == position.y) {
-			// RIGHT
-			setPosition(targetPos);
-			facing = Facing.RIGHT;
+		if (dx != 0 || dy != 0) {
+			position.setLocation(targetX, targetY);
+			facing = FACING_BY_DIRECTION[(dy + 1) * 3 + (dx + 1)];
 		}
 	}
 
@@ -416,12 +301,12 @@ public class Ant {
 	 */
 	public GridNode getNodeWithHighestConcentration(int pheromone, List<GridNode> nodes, boolean preferNestAndFood) {
 
-		GridNode target = nodes.get(rand.nextInt(nodes.size()));
+		GridNode target = nodes.get(random.nextInt(nodes.size()));
 
 		// Find node with highest pheromone or Nest or FoodSource
 		for (GridNode gn : nodes) {
 
-			if (preferNestAndFood && !(gn instanceof Tile)) {
+			if (preferNestAndFood && model.getGrid().getTerrainType(gn.getCellIndex()) != Terrain.TILE) {
 				target = gn;
 				break;
 			}
@@ -447,12 +332,12 @@ public class Ant {
 	 */
 	public GridNode getNodeWithLowestConcentration(int pheromone, List<GridNode> nodes, boolean preferNestAndFood) {
 
-		GridNode target = nodes.get(rand.nextInt(nodes.size()));
+		GridNode target = nodes.get(random.nextInt(nodes.size()));
 
 		// Find node with lowest pheromone or Nest or FoodSource
 		for (GridNode gn : nodes) {
 
-			if (preferNestAndFood && !(gn instanceof Tile)) {
+			if (preferNestAndFood && model.getGrid().getTerrainType(gn.getCellIndex()) != Terrain.TILE) {
 				target = gn;
 				break;
 			}
@@ -464,6 +349,53 @@ public class Ant {
 		return target;
 	}
 
+	/**
+	 * Picks one of the candidates found by the last sense method call by chance.
+	 * Candidates with the highest concentration of a given pheromone have the
+	 * biggest chance.
+	 * 
+	 * @param pheromone         the pheromone used for making a decision
+	 * @param random            a Random object to generate some random numbers
+	 * @param preferNestAndFood whether a Nest or FoodSource node should always be
+	 *                          preferred
+	 * @param useAggressiveBias will make it more likely that the candidate with the
+	 *                          highest pheromone concentration is chosen
+	 * @param biasAmount        how much more likely it should be that the candidate
+	 *                          with the highest pheromone concentration is chosen
+	 * @return the cell index of the candidate that was picked, or -1 if there are
+	 *         no candidates
+	 */
+	public int chooseCandidateByProbability(int pheromone, Random random, boolean preferNestAndFood,
+			boolean useAggressiveBias, double biasAmount) {
+
+		if (candidateCount == 0) {
+			return -1;
+		}
+
+		PheromoneField field = model.getGrid().getPheromoneField();
+		int highest = 0;
+
+		for (int i = 0; i < candidateCount; i++) {
+			int cell = candidates[i];
+
+			if (preferNestAndFood && model.getGrid().getTerrainType(cell) != Terrain.TILE) {
+				return cell;
+			}
+
+			weights[i] = field.get(pheromone, cell) / GridNode.getMaxPheromone();
+			if (useAggressiveBias && weights[highest] < weights[i]) {
+				highest = i;
+			}
+		}
+
+		if (useAggressiveBias) {
+			// Make the candidate with highest concentration more likely to be chosen
+			weights[highest] *= biasAmount;
+		}
+
+		return candidates[pickByWeight(weights, candidateCount, random)];
+	}
+
 	/**
 	 * Picks a node by chance. Nodes with the highest concentration of a given
 	 * pheromone have the biggest chance.
@@ -487,90 +419,87 @@ public class Ant {
 			return null;
 		}
 
-		ArrayList<GridNodeWithPercentage> chanceList = new ArrayList<>();
-		double totalPercentages = 0;
-		GridNode highest = nodes.get(0);
-
-		if (useAggressiveBias) {
-			// Find node with highest pheromone
-			for (GridNode gn : nodes) {
-				if (highest.getPheromoneAmount(pheromone) < gn.getPheromoneAmount(pheromone)) {
-					highest = gn;
-				}
-			}
+		if (weights.length < nodes.size()) {
+			weights = new double[nodes.size()];
 		}
+		int highest = 0;
 
-		// Add all given nodes to the chanceList and add up their probabilities
-		for (GridNode gn : nodes) {
+		for (int i = 0; i < nodes.size(); i++) {
+			GridNode gn = nodes.get(i);
 
-			if (preferNestAndFood && !(gn instanceof Tile)) {
+			if (preferNestAndFood && model.getGrid().getTerrainType(gn.getCellIndex()) != Terrain.TILE) {
 				return gn;
 			}
 
-			if (useAggressiveBias && gn == highest) {
+			weights[i] = gn.getPheromoneAmount(pheromone) / GridNode.getMaxPheromone();
+			if (useAggressiveBias && weights[highest] < weights[i]) {
+				highest = i;
+			}
+		}
 
-				// Make the node with highest concentration twice as likely to be chosen
-				double pheromoneSaturation = (gn.getPheromoneAmount(pheromone) / GridNode.getMaxPheromone())
-						* biasAmount;
-				chanceList.add(new GridNodeWithPercentage(gn, pheromoneSaturation));
-				totalPercentages += pheromoneSaturation;
+		if (useAggressiveBias) {
+			// Make the node with highest concentration more likely to be chosen
+			weights[highest] *= biasAmount;
+		}
 
-			} else {
+		return nodes.get(pickByWeight(weights, nodes.size(), random));
+	}
 
-				double pheromoneSaturation = gn.getPheromoneAmount(pheromone) / GridNode.getMaxPheromone();
-				chanceList.add(new GridNodeWithPercentage(gn, pheromoneSaturation));
-				totalPercentages += pheromoneSaturation;
-			}
+	/**
+	 * Rolls for an index based on the cumulative weights, using a single random
+	 * number. If all weights are 0, every index is equally likely.
+	 * 
+	 * @param weights the weights, none of them negative
+	 * @param count   the amount of weights to pick from
+	 * @param random  a Random object to generate some random numbers
+	 * @return the index that was picked
+	 */
+	private static int pickByWeight(double[] weights, int count, Random random) {
+		double total = 0;
+		for (int i = 0; i < count; i++) {
+			total += weights[i];
 		}
 
-		Collections.shuffle(chanceList);
-		GridNode result = null;
+		if (total <= 0) {
+			return random.nextInt(count);
+		}
 
-		// Roll for a number based on the cumulative probabilities
-		double chance = totalPercentages * random.nextDouble();
+		double chance = total * random.nextDouble();
 		double sum = 0;
-		for (int i = 0; i < chanceList.size(); i++) {
-			sum += chanceList.get(i).getPercentage();
-			if (sum >= chance) {
-				result = chanceList.get(i).getGridNode();
-				break;
+		int last = 0;
+		for (int i = 0; i < count; i++) {
+			if (weights[i] > 0) {
+				sum += weights[i];
+				last = i;
+				if (chance < sum) {
+					return i;
+				}
 			}
 		}
 
-		return result;
+		// Rounding errors may leave the sum just below the chance
+		return last;
 	}
 
 	/**
-	 * Gets unobstructed nodes around the Ant.
+	 * Gets unobstructed nodes around the Ant. Allocates a new List, see
+	 * senseSurrounding() for a version that does not.
 	 * 
 	 * @return a List of up to eight walkable GridNodes adjacent to the Ant.
 	 */
 	public List<GridNode> getSurroundingNodes() {
-		List<GridNode> list = new ArrayList<>();
-
-		for (GridNode gn : model.getGrid().getNode(position).getNearbyNodes()) {
-			if (!gn.isBlocking()) {
-				list.add(gn);
-			}
-		}
-		list.removeAll(lastWalked);
-
-		if (!list.isEmpty()) {
-			return list;
-		} else {
-			// List was empty, maybe short-term memory is blocking all ways
-			// Clear the short-term memory and try again
-			lastWalked.clear();
-
-			for (GridNode gn : model.getGrid().getNode(position).getNearbyNodes()) {
-				if (!gn.isBlocking()) {
-					list.add(gn);
-				}
-			}
-			list.removeAll(lastWalked);
+		senseSurrounding();
+		return getCandidateNodes();
+	}
 
-			return list;
-		}
+	/**
+	 * Gets the random number generator of this ant - Every ant has its own, so
+	 * that ants can be processed on multiple threads reproducibly.
+	 * 
+	 * @return the random number generator of this ant
+	 */
+	public Random getRandom() {
+		return random;
 	}
 
 	/**
@@ -600,13 +529,22 @@ public class Ant {
 		return position;
 	}
 
+	/**
+	 * Gets the cell index of this ants position on the Grid.
+	 * 
+	 * @return the cell index (y * cellCount + x)
+	 */
+	public int getCell() {
+		return position.y * model.getGrid().getCellCount() + position.x;
+	}
+
 	/**
 	 * Sets this ants position on the Grid.
 	 * 
 	 * @param position the new position of the ant as Point
 	 */
 	public void setPosition(Point position) {
-		this.position = position;
+		this.position.setLocation(position);
 	}
 
 	/**
@@ -658,12 +596,12 @@ public class Ant {
 	}
 
 	/**
-	 * Gets a Queue of the last Tiles this ant has walked on - The size of the Queue
-	 * is based on the size of the short-term memory of this ant.
+	 * Gets the cell indices of the last Tiles this ant has walked on - The size of
+	 * the memory is based on the size of the short-term memory of this ant.
 	 * 
-	 * @return a Queue containing the last Tiles this ant has walked on
+	 * @return a CellMemory containing the last Tiles this ant has walked on
 	 */
-	public Queue<GridNode> getLastWalked() {
+	public CellMemory getLastWalked() {
 		return lastWalked;
 	}
 
@@ -0,0 +1,84 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The AntVi AntPopulation class - All ants of a Model in a single array, oldest
+ * first. Ants can be read by index without any copies or iterator objects, so
+ * a tick does not allocate anything for its ants. Only the Model can add or
+ * remove ants, to everyone else this is a read-only List. The array is only
+ * compacted when ants are removed, i.e. when the ant count is lowered or when
+ * the Grid shrinks.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public final class AntPopulation extends AbstractList<Ant> implements RandomAccess {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private Ant[] ants = new Ant[INITIAL_CAPACITY];
+	private int size;
+
+	@Override
+	public Ant get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return ants[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds an ant as the newest ant.
+	 *
+	 * @param ant the ant to add
+	 */
+	void addAnt(Ant ant) {
+		if (size == ants.length) {
+			ants = Arrays.copyOf(ants, size * 2);
+		}
+		ants[size++] = ant;
+	}
+
+	/**
+	 * Removes the oldest ants, keeping the order of the remaining ones.
+	 *
+	 * @param count the amount of ants to remove
+	 */
+	void removeOldest(int count) {
+		count = Math.min(count, size);
+		System.arraycopy(ants, count, ants, 0, size - count);
+		Arrays.fill(ants, size - count, size, null);
+		size -= count;
+	}
+
+	/**
+	 * Removes all ants that are not on a Grid of a given size, keeping the order
+	 * of the remaining ones.
+	 *
+	 * @param cellCount the amount of columns or rows in the Grid
+	 * @return the amount of removed ants
+	 */
+	int removeOutside(int cellCount) {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			Ant ant = ants[i];
+			int x = ant.getPosition().x;
+			int y = ant.getPosition().y;
+			if (x >= 0 && y >= 0 && x < cellCount && y < cellCount) {
+				ants[kept++] = ant;
+			}
+		}
+		int removed = size - kept;
+		Arrays.fill(ants, kept, size, null);
+		size = kept;
+		return removed;
+	}
+}
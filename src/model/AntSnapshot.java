@@ -0,0 +1,95 @@
+package model;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The AntVi AntSnapshot class - A copy of the position and facing of every ant
+ * at one point in time. It is filled by Model.snapshot() on the simulation
+ * thread and can then be drawn without touching the Model or any Ant, so
+ * drawing never waits for a model tick. The arrays only grow, so filling a
+ * snapshot does not allocate any objects once it is large enough. An
+ * AntSnapshot must not be drawn and filled at the same time.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public final class AntSnapshot {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int size;
+	private int[] xs = new int[INITIAL_CAPACITY];
+	private int[] ys = new int[INITIAL_CAPACITY];
+	private byte[] facings = new byte[INITIAL_CAPACITY];
+	private int cellSize;
+	private int initialCellSize;
+	private int offset;
+	private double cellWidth;
+
+	/**
+	 * Removes all ants and copies the layout of the Grid.
+	 *
+	 * @param cellSize        the size of a cell in pixels
+	 * @param initialCellSize the cell size the ant icon is drawn unscaled at
+	 * @param offset          the offset of the Grid in pixels
+	 * @param cellWidth       the distance between two cells on the screen, less
+	 *                        than the cell size if the Grid is scaled down to fit
+	 */
+	void clear(int cellSize, int initialCellSize, int offset, double cellWidth) {
+		size = 0;
+		this.cellSize = cellSize;
+		this.initialCellSize = initialCellSize;
+		this.offset = offset;
+		this.cellWidth = cellWidth;
+	}
+
+	/**
+	 * Adds an ant in its current position and facing.
+	 *
+	 * @param ant the ant to add
+	 */
+	void add(Ant ant) {
+		if (size == xs.length) {
+			xs = Arrays.copyOf(xs, size * 2);
+			ys = Arrays.copyOf(ys, size * 2);
+			facings = Arrays.copyOf(facings, size * 2);
+		}
+		xs[size] = ant.getPosition().x;
+		ys[size] = ant.getPosition().y;
+		facings[size] = (byte) ant.getFacing().ordinal();
+		size++;
+	}
+
+	/**
+	 * Draws all ants at the position and facing they had when this snapshot was
+	 * filled.
+	 *
+	 * @param g the AWT Graphics2D object to be used for rendering
+	 */
+	public void render(Graphics2D g) {
+		if (size == 0) {
+			return;
+		}
+
+		// The sprites are shared by all ants and only rebuilt if the cell size changes
+		BufferedImage[] sprites = AntSprites.getSprites(cellSize, initialCellSize);
+		if (sprites == null) {
+			return;
+		}
+
+		double scalingPercentage = ((double) cellSize / initialCellSize);
+		double iconCenter = scalingPercentage * AntSprites.getIcon().getWidth() / 2;
+
+		for (int i = 0; i < size; i++) {
+			int drawLocationX = (int) ((xs[i] * cellWidth + offset) + (cellWidth / 2D) - iconCenter);
+			int drawLocationY = (int) ((ys[i] * cellWidth + offset) + (cellWidth / 2D) - iconCenter);
+			g.drawImage(sprites[facings[i]], drawLocationX, drawLocationY, null);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,112 @@
+package model;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import model.Ant.Facing;
+
+/**
+ * The AntVi AntSprites class - It decodes the ant icon only once and keeps a
+ * pre-rotated and scaled copy of it for every Facing. The copies are only
+ * rebuilt when the cell size of the Grid changes.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+final class AntSprites {
+
+	private static BufferedImage icon;
+	private static boolean iconLoaded;
+	private static BufferedImage[] sprites;
+	private static int spriteCellSize = -1;
+
+	private AntSprites() {
+		// Only static methods
+	}
+
+	/**
+	 * Gets the ant icon, decoding it on first use.
+	 *
+	 * @return the unrotated ant icon, or null if it could not be loaded
+	 */
+	static synchronized BufferedImage getIcon() {
+		if (!iconLoaded) {
+			iconLoaded = true;
+			try {
+				icon = ImageIO.read(new File("src/ant.png"));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return icon;
+	}
+
+	/**
+	 * Gets the ant sprites for a given cell size - One sprite per Facing, indexed
+	 * by Facing.ordinal().
+	 *
+	 * @param cellSize        the current cell size of the Grid
+	 * @param initialCellSize the cell size the icon is drawn unscaled at
+	 * @return the sprites, or null if the icon could not be loaded
+	 */
+	static synchronized BufferedImage[] getSprites(int cellSize, int initialCellSize) {
+		if (getIcon() == null) {
+			return null;
+		}
+
+		if (cellSize != spriteCellSize) {
+			double scalingPercentage = ((double) cellSize / initialCellSize);
+			double imageCenter = scalingPercentage * icon.getWidth() / 2D;
+
+			BufferedImage[] rotated = new BufferedImage[Facing.values().length];
+			for (Facing facing : Facing.values()) {
+				AffineTransform transform = AffineTransform.getRotateInstance(getRotation(facing), imageCenter,
+						imageCenter);
+				transform.scale(scalingPercentage, scalingPercentage);
+
+				AffineTransformOp transformOperation = new AffineTransformOp(transform,
+						AffineTransformOp.TYPE_BILINEAR);
+				rotated[facing.ordinal()] = transformOperation.filter(icon, null);
+			}
+
+			sprites = rotated;
+			spriteCellSize = cellSize;
+		}
+		return sprites;
+	}
+
+	/**
+	 * Gets the rotation of the icon for a given Facing.
+	 *
+	 * @param facing the direction the ant is facing
+	 * @return the rotation in radians
+	 */
+	private static double getRotation(Facing facing) {
+		// All +45 degrees because the icon is tilted (oops)
+		switch (facing) {
+		case UP:
+			return Math.toRadians(45.0);
+		case DOWN:
+			return Math.toRadians(225.0);
+		case LEFT:
+			return Math.toRadians(315.0);
+		case RIGHT:
+			return Math.toRadians(135.0);
+		case UPLEFT:
+			return Math.toRadians(360.0);
+		case UPRIGHT:
+			return Math.toRadians(90.0);
+		case DOWNLEFT:
+			return Math.toRadians(270.0);
+		case DOWNRIGHT:
+			return Math.toRadians(180.0);
+		default:
+			return 0;
+		}
+	}
+}
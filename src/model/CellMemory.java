@@ -0,0 +1,162 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The AntVi CellMemory class - The short-term memory of an Ant. It remembers
+ * the cell indices of the last GridNodes an Ant has walked on in a ring buffer
+ * of fixed capacity, and mirrors them in a small open-addressed hash set so
+ * checking whether a cell is remembered takes O(1). Once the memory is full,
+ * adding a cell forgets the oldest one. Does not allocate any objects after
+ * creation unless the capacity changes.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public class CellMemory {
+
+	private int[] ring;
+	private int head;
+	private int size;
+
+	// Linear probing hash set of cell + 1 (0 marks an empty slot), may hold a cell
+	// more than once if it was walked on more than once
+	private int[] table;
+	private int shift;
+
+	/**
+	 * Creates an empty CellMemory.
+	 *
+	 * @param capacity the amount of cells that can be remembered
+	 */
+	public CellMemory(int capacity) {
+		setCapacity(capacity);
+	}
+
+	/**
+	 * Changes the amount of cells that can be remembered - Only the newest cells
+	 * are kept if the new capacity is smaller.
+	 *
+	 * @param capacity the amount of cells that can be remembered (at least 1)
+	 */
+	public void setCapacity(int capacity) {
+		capacity = Math.max(capacity, 1);
+		if (ring != null && ring.length == capacity) {
+			return;
+		}
+
+		int[] oldRing = ring;
+		int oldHead = head;
+		int oldSize = size;
+
+		ring = new int[capacity];
+		// Keep the table at most half full
+		int tableSize = Math.max(Integer.highestOneBit(capacity * 2 - 1) << 1, 8);
+		table = new int[tableSize];
+		shift = 32 - Integer.numberOfTrailingZeros(tableSize);
+		head = 0;
+		size = 0;
+
+		for (int i = Math.max(oldSize - capacity, 0); i < oldSize; i++) {
+			add(oldRing[(oldHead + i) % oldRing.length]);
+		}
+	}
+
+	public int getCapacity() {
+		return ring.length;
+	}
+
+	/**
+	 * Remembers a cell, forgetting the oldest remembered cell if the memory is
+	 * full.
+	 *
+	 * @param cell the index of the cell (y * cellCount + x)
+	 */
+	public void add(int cell) {
+		if (size == ring.length) {
+			removeFromTable(ring[head]);
+			head = (head + 1) % ring.length;
+			size--;
+		}
+		ring[(head + size) % ring.length] = cell;
+		size++;
+
+		int slot = home(cell);
+		while (table[slot] != 0) {
+			slot = (slot + 1) & (table.length - 1);
+		}
+		table[slot] = cell + 1;
+	}
+
+	/**
+	 * Checks whether a cell is remembered.
+	 *
+	 * @param cell the index of the cell (y * cellCount + x)
+	 * @return true if the cell is remembered
+	 */
+	public boolean contains(int cell) {
+		for (int slot = home(cell); table[slot] != 0; slot = (slot + 1) & (table.length - 1)) {
+			if (table[slot] == cell + 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets a remembered cell.
+	 *
+	 * @param index the index of the cell in the memory, 0 being the oldest
+	 * @return the index of the cell (y * cellCount + x)
+	 */
+	public int get(int index) {
+		return ring[(head + index) % ring.length];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(table, 0);
+		head = 0;
+		size = 0;
+	}
+
+	private int home(int cell) {
+		return (cell * 0x9E3779B9) >>> shift;
+	}
+
+	/**
+	 * Removes one occurrence of a cell from the hash set and shifts following
+	 * entries back so no probe sequence is interrupted.
+	 */
+	private void removeFromTable(int cell) {
+		int mask = table.length - 1;
+		int slot = home(cell);
+		while (table[slot] != cell + 1) {
+			slot = (slot + 1) & mask;
+		}
+
+		int next = slot;
+		while (true) {
+			next = (next + 1) & mask;
+			if (table[next] == 0) {
+				break;
+			}
+			int nextHome = home(table[next] - 1);
+			// Leave the entry where it is if its home lies cyclically in (slot, next]
+			boolean inBetween = slot <= next ? slot < nextHome && nextHome <= next
+					: slot < nextHome || nextHome <= next;
+			if (!inBetween) {
+				table[slot] = table[next];
+				slot = next;
+			}
+		}
+		table[slot] = 0;
+	}
+}
@@ -0,0 +1,79 @@
+package model;
+
+import java.util.Arrays;
+
+import grid.PheromoneField;
+
+/**
+ * The AntVi DepositBuffer class - It collects the pheromone deposits and the
+ * gathered food of a chunk of ants, so that ants can be processed on multiple
+ * threads. The collected changes are applied to the Model afterwards, in the
+ * order they were recorded.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public class DepositBuffer {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private int[] channels = new int[INITIAL_CAPACITY];
+	private int[] cells = new int[INITIAL_CAPACITY];
+	private double[] amounts = new double[INITIAL_CAPACITY];
+	private int size;
+	private int foodGathered;
+
+	/**
+	 * Records a pheromone deposit.
+	 *
+	 * @param channel the pheromone type index
+	 * @param cell    the index of the cell in the PheromoneField
+	 * @param amount  the amount of pheromone to deposit
+	 */
+	public void deposit(int channel, int cell, double amount) {
+		if (size == cells.length) {
+			channels = Arrays.copyOf(channels, size * 2);
+			cells = Arrays.copyOf(cells, size * 2);
+			amounts = Arrays.copyOf(amounts, size * 2);
+		}
+		channels[size] = channel;
+		cells[size] = cell;
+		amounts[size] = amount;
+		size++;
+	}
+
+	/**
+	 * Records that an ant brought one piece of food back to a Nest.
+	 */
+	public void increaseFoodGathered() {
+		foodGathered++;
+	}
+
+	/**
+	 * Applies all recorded deposits to a PheromoneField in the order they were
+	 * recorded.
+	 *
+	 * @param field the PheromoneField to deposit on
+	 */
+	public void applyTo(PheromoneField field) {
+		for (int i = 0; i < size; i++) {
+			field.increase(channels[i], cells[i], amounts[i]);
+		}
+	}
+
+	/**
+	 * Removes all recorded changes, but keeps the allocated memory.
+	 */
+	public void clear() {
+		size = 0;
+		foodGathered = 0;
+	}
+
+	public int getFoodGathered() {
+		return foodGathered;
+	}
+
+	public int size() {
+		return size;
+	}
+}
@@ -1,13 +1,14 @@
 package model;
 
-import java.awt.Graphics2D;
 import java.awt.Point;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
 
 import controller.Controller;
 import grid.Grid;
@@ -21,24 +22,39 @@ import grid.Grid;
  */
 public abstract class Model {
 
+	// The amount of ants processed by a single task when ants are processed in parallel
+	private static final int ANT_CHUNK_SIZE = 1024;
+	// The amount of steps the deposit amounts are precomputed for
+	private static final int DEPOSIT_TABLE_SIZE = 4096;
+
 	private Controller controller;
 	private int modelSpeed = 30;
 	private int modelTicks;
 	private List<PropertyChangeListener> listeners = new ArrayList<>();
 	private Grid grid;
-	private Queue<Ant> ants = new LinkedList<>();
+	private AntPopulation ants = new AntPopulation();
+	// The size and rebuild count of the Grid the ants were last checked against
+	private int populationCellCount;
+	private int populationRebuildCount;
 	private int antCount;
 	private double pheromoneStrength;
 	private double evaporationSpeed;
 	private double pheromoneFallOff;
+	private volatile double[] depositAmounts = new double[DEPOSIT_TABLE_SIZE];
 	private double randomMoveChance;
 	private boolean usingFallOff;
 	private boolean usingDissipation;
 	private int foodGathered;
+	private ForkJoinPool workerPool = ForkJoinPool.commonPool();
+	private boolean usingParallelAnts;
+	private List<DepositBuffer> depositBuffers = new ArrayList<>();
+	private Random seedGenerator = new Random();
 
 	protected Model(Controller controller, Grid grid) {
 		this.controller = controller;
 		this.grid = grid;
+		populationCellCount = grid.getCellCount();
+		populationRebuildCount = grid.getRebuildCount();
 
 		// DEFAULT VALUES
 		setAntCount(0);
@@ -46,6 +62,8 @@ public abstract class Model {
 		setEvaporationSpeed(0.50D);
 		setRandomMoveChance(0.01D);
 		setPheromoneFallOff(0.020D);
+		setUsingLazyEvaporation(true);
+		setUsingParallelAnts(true);
 	}
 
 	/**
@@ -55,21 +73,8 @@ public abstract class Model {
 	public synchronized void tick() {
 		synchronized (ants) {
 			synchronized (grid) {
-				// Removing ants that are outside of the Grid (after scaling the Grid)
-				int temp = ants.size();
-				Queue<Ant> tempQueue = new LinkedList<>();
-				while (!ants.isEmpty()) {
-					Ant tempAnt = ants.poll();
-					if (grid.getNode(tempAnt.getPosition()) != null) {
-						tempQueue.add(tempAnt);
-					}
-				}
-
-				if (temp != tempQueue.size()) {
-					notifyListeners(this, "ModelChangedAntCount", null, tempQueue.size());
-				}
-
-				ants = tempQueue;
+				// Adapting the ants to a rebuilt or resized Grid
+				adaptAntsToGrid();
 
 				// Updating the Model
 				generateSolutions();
@@ -81,18 +86,130 @@ public abstract class Model {
 	}
 
 	/**
-	 * This method is called by the Controller every frame and renders all ants.
+	 * This method is called by the Controller every frame between two ticks and
+	 * copies the position and facing of all ants into an AntSnapshot, which can
+	 * then be drawn without holding any lock of the Model.
 	 * 
-	 * @param g The Graphics2D object of the DisplayWindow Canvas
+	 * @param snapshot the AntSnapshot to fill
 	 */
-	public synchronized void render(Graphics2D g) {
+	public synchronized void snapshot(AntSnapshot snapshot) {
 		synchronized (ants) {
-			for (Ant ant : ants) {
-				ant.render(g);
+			synchronized (grid) {
+				adaptAntsToGrid();
+				snapshot.clear(grid.getCellSize(), grid.getInitialCellSize(), grid.getOffset(),
+						(double) grid.getDisplaySize() / grid.getCellCount());
+			}
+			for (int i = 0; i < ants.size(); i++) {
+				snapshot.add(ants.get(i));
 			}
 		}
 	}
 
+	/**
+	 * Adapts the ants to the Grid if it was rebuilt since the last check: The
+	 * short-term memory of every ant is cleared, since the cell indices in it
+	 * refer to the old Grid, and if the Grid has shrunk, all ants outside of it
+	 * are removed. Must be called while holding the locks of the ants and the
+	 * Grid.
+	 */
+	private void adaptAntsToGrid() {
+		int rebuildCount = grid.getRebuildCount();
+		if (rebuildCount == populationRebuildCount) {
+			return;
+		}
+
+		int cellCount = grid.getCellCount();
+		if (cellCount < populationCellCount) {
+			int removed = ants.removeOutside(cellCount);
+			if (removed > 0) {
+				notifyListeners(this, "ModelChangedAntCount", null, ants.size());
+			}
+		}
+		for (int i = 0; i < ants.size(); i++) {
+			ants.get(i).getLastWalked().clear();
+		}
+		populationCellCount = cellCount;
+		populationRebuildCount = rebuildCount;
+	}
+
+	/**
+	 * Runs an action for every ant of a List and applies the recorded pheromone
+	 * deposits and gathered food afterwards. If parallel ants are used, the ants
+	 * are split into fixed-size chunks that are processed on the worker pool, each
+	 * chunk recording into its own DepositBuffer. The buffers are applied in chunk
+	 * order, so the result is the same as processing all ants one after another,
+	 * no matter how many threads are used.<br>
+	 * The action must only change the state of the given ant and must not change
+	 * the Grid directly.
+	 * 
+	 * @param ants   the ants to process
+	 * @param action the action to run for every ant
+	 */
+	protected void processAnts(List<Ant> ants, BiConsumer<Ant, DepositBuffer> action) {
+		// Always at least one chunk, even without any ants
+		int chunkCount = usingParallelAnts ? Math.max(1, (ants.size() + ANT_CHUNK_SIZE - 1) / ANT_CHUNK_SIZE) : 1;
+		while (depositBuffers.size() < chunkCount) {
+			depositBuffers.add(new DepositBuffer());
+		}
+
+		if (chunkCount > 1) {
+			workerPool.invoke(new AntChunkTask(ants, 0, chunkCount, action));
+		} else {
+			processChunk(ants, 0, ants.size(), depositBuffers.get(0), action);
+		}
+
+		// Apply all changes in a fixed order
+		for (int i = 0; i < chunkCount; i++) {
+			DepositBuffer buffer = depositBuffers.get(i);
+			buffer.applyTo(grid.getPheromoneField());
+			if (buffer.getFoodGathered() > 0) {
+				increaseFoodGatheredBy(buffer.getFoodGathered());
+			}
+			buffer.clear();
+		}
+	}
+
+	private static void processChunk(List<Ant> ants, int from, int to, DepositBuffer buffer,
+			BiConsumer<Ant, DepositBuffer> action) {
+		for (int i = from; i < to; i++) {
+			action.accept(ants.get(i), buffer);
+		}
+	}
+
+	/**
+	 * Splits a range of ant chunks until every task processes a single chunk.
+	 */
+	private class AntChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Ant> ants;
+		private final int fromChunk;
+		private final int toChunk;
+		private final BiConsumer<Ant, DepositBuffer> action;
+
+		AntChunkTask(List<Ant> ants, int fromChunk, int toChunk, BiConsumer<Ant, DepositBuffer> action) {
+			this.ants = ants;
+			this.fromChunk = fromChunk;
+			this.toChunk = toChunk;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (toChunk - fromChunk == 1) {
+				int from = fromChunk * ANT_CHUNK_SIZE;
+				int to = Math.min(from + ANT_CHUNK_SIZE, ants.size());
+				processChunk(ants, from, to, depositBuffers.get(fromChunk), action);
+				return;
+			}
+
+			int middle = (fromChunk + toChunk) >>> 1;
+			invokeAll(new AntChunkTask(ants, fromChunk, middle, action),
+					new AntChunkTask(ants, middle, toChunk, action));
+		}
+	}
+
 	/**
 	 * This method should be used by derived classes to find a move target for all
 	 * ants and move them.
@@ -138,13 +255,12 @@ public abstract class Model {
 	}
 
 	/**
-	 * Updates the amount of ticks the model has been running for.
+	 * Updates the amount of ticks the model has been running for. No event is
+	 * raised, the GUI reads the amount once per frame.
 	 * 
 	 * @param modelTicks the amount of ticks
 	 */
 	public void setModelTicks(int modelTicks) {
-
-		notifyListeners(this, "ModelTicks", this.modelTicks, modelTicks);
 		this.modelTicks = modelTicks;
 	}
 
@@ -191,6 +307,7 @@ public abstract class Model {
 	 */
 	public final void setPheromoneStrength(double value) {
 		pheromoneStrength = value;
+		updateDepositAmounts();
 	}
 
 	/**
@@ -253,6 +370,37 @@ public abstract class Model {
 			usingFallOff = true;
 			this.pheromoneFallOff = pheromoneFallOff;
 		}
+		updateDepositAmounts();
+	}
+
+	/**
+	 * Gets the amount of pheromone an ant deposits after walking a given amount of
+	 * steps - The pheromone strength reduced by the falloff once for every step.
+	 * Looked up in a table for the first steps instead of being calculated.
+	 * 
+	 * @param steps the amount of steps the ant has walked
+	 * @return the amount of pheromone to deposit
+	 */
+	public double getDepositAmount(int steps) {
+		double[] amounts = depositAmounts;
+		if (steps >= 0 && steps < amounts.length) {
+			return amounts[steps];
+		}
+		return pheromoneStrength * Math.pow(1 - pheromoneFallOff, steps);
+	}
+
+	/**
+	 * Recalculates the table of deposit amounts - Called whenever the pheromone
+	 * strength or falloff changes.
+	 */
+	private void updateDepositAmounts() {
+		double[] amounts = new double[DEPOSIT_TABLE_SIZE];
+		double amount = pheromoneStrength;
+		for (int steps = 0; steps < amounts.length; steps++) {
+			amounts[steps] = amount;
+			amount *= 1 - pheromoneFallOff;
+		}
+		depositAmounts = amounts;
 	}
 
 	/**
@@ -283,12 +431,98 @@ public abstract class Model {
 	}
 
 	/**
-	 * Gets the List of ants that are currently active in the model.
+	 * Whether pheromones only evaporate once a GridNode is read or changed, instead
+	 * of sweeping over the whole Grid on every tick. Always false if pheromones are
+	 * stored sparsely (e.g. on large maps), which always evaporate eagerly.
+	 * 
+	 * @return true if used, false otherwise
+	 */
+	public boolean isUsingLazyEvaporation() {
+		return grid.isLazyEvaporation();
+	}
+
+	/**
+	 * Sets whether pheromones should only evaporate once a GridNode is read or
+	 * changed - The results are the same, but the cost of a tick no longer depends
+	 * on the size of the Grid. Has no effect while pheromones are stored sparsely,
+	 * their evaporation only covers cells with pheromone anyway.
+	 * 
+	 * @param usingLazyEvaporation true if used, false otherwise
+	 */
+	public final void setUsingLazyEvaporation(boolean usingLazyEvaporation) {
+		grid.setLazyEvaporation(usingLazyEvaporation);
+	}
+
+	/**
+	 * Gets the ForkJoinPool that derived classes should use for parallel work
+	 * inside a tick.
+	 * 
+	 * @return the worker pool
+	 */
+	public ForkJoinPool getWorkerPool() {
+		return workerPool;
+	}
+
+	/**
+	 * Sets the amount of threads used for parallel work inside a tick - The common
+	 * ForkJoinPool is used by default.
+	 * 
+	 * @param workerThreads the amount of worker threads
+	 */
+	public final synchronized void setWorkerThreads(int workerThreads) {
+		if (workerPool != ForkJoinPool.commonPool()) {
+			workerPool.shutdown();
+		}
+		workerPool = new ForkJoinPool(workerThreads);
+	}
+
+	/**
+	 * Whether ants are processed in chunks on the worker pool.
+	 * 
+	 * @return true if used, false otherwise
+	 */
+	public boolean isUsingParallelAnts() {
+		return usingParallelAnts;
+	}
+
+	/**
+	 * Sets whether ants should be processed in chunks on the worker pool - Only has
+	 * an effect if there are more ants than fit into a single chunk.
+	 * 
+	 * @param usingParallelAnts true if used, false otherwise
+	 */
+	public final void setUsingParallelAnts(boolean usingParallelAnts) {
+		this.usingParallelAnts = usingParallelAnts;
+	}
+
+	/**
+	 * Sets the seed all further ants get their random number generator seeded
+	 * from. Using the same seed for the same scenario makes runs reproducible.
+	 * 
+	 * @param seed the seed
+	 */
+	public synchronized void setSeed(long seed) {
+		seedGenerator.setSeed(seed);
+	}
+
+	/**
+	 * Gets the seed for the random number generator of a new ant.
+	 * 
+	 * @return a new seed
+	 */
+	synchronized long nextAntSeed() {
+		return seedGenerator.nextLong();
+	}
+
+	/**
+	 * Gets the ants that are currently active in the model, oldest first. This is
+	 * no copy but a read-only view that changes along with the model, so it should
+	 * only be used during a tick or while holding the lock of the model.
 	 * 
 	 * @return the List of ants
 	 */
 	public List<Ant> getAnts() {
-		return new ArrayList<>(ants);
+		return ants;
 	}
 
 	/**
@@ -314,15 +548,12 @@ public abstract class Model {
 			if (difference < 0) {
 				// Ants need to be added
 				while (difference < 0) {
-					ants.add(new Ant(this, new Point(grid.getNestPositions().get(0))));
+					ants.addAnt(new Ant(this, new Point(grid.getNestPositions().get(0))));
 					difference++;
 				}
 			} else if (difference > 0) {
 				// Remove the oldest Ants first
-				while (difference > 0) {
-					ants.poll();
-					difference--;
-				}
+				ants.removeOldest(difference);
 			} else {
 				// AntCount is the same as before, nothing to do...
 			}
@@ -361,17 +592,26 @@ public abstract class Model {
 	 * one.
 	 */
 	public final void increaseFoodGathered() {
-		notifyListeners(this, "FoodGathered", foodGathered, foodGathered + 1);
 		foodGathered++;
 	}
 
 	/**
-	 * Sets the amount of food the ants have gathered.
+	 * Increases the amount of food the ants have gathered until the last reset by
+	 * a given amount.
+	 * 
+	 * @param amount the amount of food that was gathered
+	 */
+	public final void increaseFoodGatheredBy(int amount) {
+		foodGathered += amount;
+	}
+
+	/**
+	 * Sets the amount of food the ants have gathered. No event is raised, the GUI
+	 * reads the amount once per frame.
 	 * 
 	 * @param value amount of food the ants have gathered
 	 */
 	public final void setFoodGathered(int value) {
-		notifyListeners(this, "FoodGathered", foodGathered, value);
 		foodGathered = value;
 	}
 }
@@ -2,7 +2,9 @@ package utils;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Point;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -12,7 +14,10 @@ import grid.GridNode;
 
 /**
  * Basic implementation of A* pathfinding to be used with the Grid and GridNode
- * classes.
+ * classes. Cells are addressed by their index (y * cellCount + x). The open
+ * nodes are kept in a binary heap, the closed nodes in a BitSet and the costs in
+ * arrays that are stamped with the search generation they were written in, so
+ * no reset over the whole Grid is needed before a search.
  * 
  * @author Max Ehringhausen
  *
@@ -23,6 +28,15 @@ public class AStarPathfinding {
 	private Grid grid;
 	private CopyOnWriteArrayList<List<GridNode>> paths = new CopyOnWriteArrayList<>();
 
+	// Used for searching
+	private int searchCellCount;
+	private int[] gCosts;
+	private int[] previousCells;
+	private int[] generations;
+	private int generation;
+	private BitSet closedCells;
+	private IntMinHeap openCells;
+
 	public AStarPathfinding(Grid grid) {
 		this.grid = grid;
 
@@ -49,12 +63,17 @@ public class AStarPathfinding {
 	}
 
 	/**
-	 * This method should be called if the the Grid has changed. It caches all
-	 * neighbours of all nodes.
+	 * This method should be called if the the Grid has been re-initialized. It
+	 * caches all neighbours of all nodes.
 	 */
 	public final void findAllNeighbours() {
 		// Resetting previously found paths
-		paths = new CopyOnWriteArrayList<>();
+		clearPaths();
+
+		// Large maps don't keep their GridNodes, neighbours are found on demand
+		if (grid.isLargeMap()) {
+			return;
+		}
 
 		// Finding neighbours
 		for (int x = 0; x < grid.getCellCount(); x++) {
@@ -65,6 +84,43 @@ public class AStarPathfinding {
 		}
 	}
 
+	/**
+	 * This method should be called if a single GridNode of the Grid has been
+	 * replaced. It caches the neighbours of the new GridNode and replaces the old
+	 * GridNode in the cached neighbours of its (up to eight) neighbours.
+	 * 
+	 * @param x the Grid-x-coordinate of the replaced GridNode
+	 * @param y the Grid-y-coordinate of the replaced GridNode
+	 */
+	public void updateNeighbours(int x, int y) {
+		// Resetting previously found paths, they may contain the old GridNode
+		clearPaths();
+
+		if (grid.isLargeMap()) {
+			return;
+		}
+
+		GridNode gn = grid.getNode(x, y);
+		gn.setNearbyNodes(findNearbyNodes(gn));
+
+		for (GridNode nearbyNode : gn.getNearbyNodes()) {
+			List<GridNode> nearbyList = nearbyNode.getNearbyNodes();
+			for (int i = 0; i < nearbyList.size(); i++) {
+				if (nearbyList.get(i).getX() == x && nearbyList.get(i).getY() == y) {
+					nearbyList.set(i, gn);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all previously found paths.
+	 */
+	public void clearPaths() {
+		paths = new CopyOnWriteArrayList<>();
+	}
+
 	/**
 	 * If possible, finds the shortest path between two GridNodes.
 	 * 
@@ -76,63 +132,57 @@ public class AStarPathfinding {
 	 */
 	public List<GridNode> findPath(int startX, int startY, int endX, int endY) {
 
-		List<GridNode> openNodes = new ArrayList<>();
-		List<GridNode> closedNodes = new ArrayList<>();
-		GridNode startNode = grid.getNode(startX, startY);
-		GridNode endNode = grid.getNode(endX, endY);
-
-		if (startNode == endNode) {
+		// Compare coordinates, large maps hand out a new GridNode on every call
+		if (startX == endX && startY == endY) {
 			return new ArrayList<>();
 		}
-		openNodes.add(startNode);
 
-		// Resetting all GridNodes from previous operations
-		for (int x = 0; x < grid.getCellCount(); x++) {
-			for (int y = 0; y < grid.getCellCount(); y++) {
-				GridNode gn = grid.getNode(x, y);
-				gn.setGCost(Integer.MAX_VALUE);
-				gn.calculateFCost();
-				gn.setPreviousNode(null);
-			}
-		}
+		int cellCount = grid.getCellCount();
+		prepareSearch(cellCount);
 
-		startNode.setGCost(0);
-		startNode.setHCost(calculateDistanceCost(startNode, endNode));
-		startNode.calculateFCost();
+		int startCell = startY * cellCount + startX;
+		int endCell = endY * cellCount + endX;
 
-		while (!openNodes.isEmpty()) {
+		setGCost(startCell, 0, -1);
+		openCells.addOrDecrease(startCell, createKey(0, calculateDistanceCost(startX, startY, endX, endY)));
 
-			GridNode currentNode = findLowestFCostNode(openNodes);
+		while (!openCells.isEmpty()) {
 
-			if (currentNode == endNode) {
+			int currentCell = openCells.poll();
+
+			if (currentCell == endCell) {
 				// Reached end
-				paths.add(calculatePath(endNode));
+				paths.add(calculatePath(endCell, cellCount));
 				return paths.get(paths.size() - 1);
 			}
 
-			openNodes.remove(currentNode);
-			closedNodes.add(currentNode);
+			closedCells.set(currentCell);
+			int currentX = currentCell % cellCount;
+			int currentY = currentCell / cellCount;
 
-			for (GridNode nearbyNode : currentNode.getNearbyNodes()) {
+			for (int nearbyY = currentY - 1; nearbyY <= currentY + 1; nearbyY++) {
+				for (int nearbyX = currentX - 1; nearbyX <= currentX + 1; nearbyX++) {
 
-				if (closedNodes.contains(nearbyNode)) {
-					continue;
-				}
+					if (nearbyX < 0 || nearbyY < 0 || nearbyX >= cellCount || nearbyY >= cellCount) {
+						continue;
+					}
 
-				if (nearbyNode.isBlocking()) {
-					closedNodes.add(nearbyNode);
-					continue;
-				}
+					int nearbyCell = nearbyY * cellCount + nearbyX;
+					if (closedCells.get(nearbyCell)) {
+						continue;
+					}
 
-				int pseudoGCost = currentNode.getGCost() + calculateDistanceCost(currentNode, nearbyNode);
-				if (pseudoGCost < nearbyNode.getGCost()) {
-					nearbyNode.setPreviousNode(currentNode);
-					nearbyNode.setGCost(pseudoGCost);
-					nearbyNode.setHCost(calculateDistanceCost(nearbyNode, endNode));
-					nearbyNode.calculateFCost();
+					if (grid.isBlocking(nearbyCell)) {
+						closedCells.set(nearbyCell);
+						continue;
+					}
 
-					if (!openNodes.contains(nearbyNode)) {
-						openNodes.add(nearbyNode);
+					boolean diagonal = nearbyX != currentX && nearbyY != currentY;
+					int pseudoGCost = getGCost(currentCell) + (diagonal ? MOVE_DIAGONAL_COST : MOVE_STRAIGHT_COST);
+					if (pseudoGCost < getGCost(nearbyCell)) {
+						setGCost(nearbyCell, pseudoGCost, currentCell);
+						int hCost = calculateDistanceCost(nearbyX, nearbyY, endX, endY);
+						openCells.addOrDecrease(nearbyCell, createKey(pseudoGCost + hCost, hCost));
 					}
 				}
 			}
@@ -142,6 +192,131 @@ public class AStarPathfinding {
 		return new ArrayList<>();
 	}
 
+	/**
+	 * Finds the shortest paths from multiple starting GridNodes to the same
+	 * destination. Instead of one search per start, a single Dijkstra search from
+	 * the destination builds a distance field, from which all paths are read off.
+	 * 
+	 * @param endX   the Gird-x-coordinate of the destination GridNode
+	 * @param endY   the Gird-y-coordinate of the destination GridNode
+	 * @param starts the Grid positions of all starting GridNodes
+	 * @return A list containing one path (a list of GridNodes) for every start a
+	 *         path was found for
+	 */
+	public List<List<GridNode>> findPathsTo(int endX, int endY, List<Point> starts) {
+
+		List<List<GridNode>> foundPaths = new ArrayList<>();
+		int cellCount = grid.getCellCount();
+		prepareSearch(cellCount);
+
+		// Only search until every start has been reached
+		BitSet remainingCells = new BitSet(cellCount * cellCount);
+		for (Point start : starts) {
+			if (start.x != endX || start.y != endY) {
+				remainingCells.set(start.y * cellCount + start.x);
+			}
+		}
+		int remaining = remainingCells.cardinality();
+
+		int endCell = endY * cellCount + endX;
+		setGCost(endCell, 0, -1);
+		openCells.addOrDecrease(endCell, 0);
+
+		while (remaining > 0 && !openCells.isEmpty()) {
+
+			int currentCell = openCells.poll();
+			closedCells.set(currentCell);
+			if (remainingCells.get(currentCell)) {
+				remaining--;
+			}
+
+			int currentX = currentCell % cellCount;
+			int currentY = currentCell / cellCount;
+
+			for (int nearbyY = currentY - 1; nearbyY <= currentY + 1; nearbyY++) {
+				for (int nearbyX = currentX - 1; nearbyX <= currentX + 1; nearbyX++) {
+
+					if (nearbyX < 0 || nearbyY < 0 || nearbyX >= cellCount || nearbyY >= cellCount) {
+						continue;
+					}
+
+					int nearbyCell = nearbyY * cellCount + nearbyX;
+					if (closedCells.get(nearbyCell)) {
+						continue;
+					}
+
+					if (grid.isBlocking(nearbyCell)) {
+						closedCells.set(nearbyCell);
+						continue;
+					}
+
+					boolean diagonal = nearbyX != currentX && nearbyY != currentY;
+					int pseudoGCost = getGCost(currentCell) + (diagonal ? MOVE_DIAGONAL_COST : MOVE_STRAIGHT_COST);
+					if (pseudoGCost < getGCost(nearbyCell)) {
+						setGCost(nearbyCell, pseudoGCost, currentCell);
+						openCells.addOrDecrease(nearbyCell, pseudoGCost);
+					}
+				}
+			}
+		}
+
+		// Every previous cell points towards the destination, so paths are already in
+		// the right order
+		for (int cell = remainingCells.nextSetBit(0); cell >= 0; cell = remainingCells.nextSetBit(cell + 1)) {
+			if (closedCells.get(cell) && getGCost(cell) != Integer.MAX_VALUE) {
+				List<GridNode> path = new ArrayList<>();
+				for (int pathCell = cell; pathCell >= 0; pathCell = previousCells[pathCell]) {
+					path.add(grid.getNode(pathCell % cellCount, pathCell / cellCount));
+				}
+				foundPaths.add(path);
+			}
+		}
+
+		paths.addAll(foundPaths);
+		return foundPaths;
+	}
+
+	/**
+	 * Makes sure the search arrays fit the Grid and starts a new search
+	 * generation, which invalidates all costs of previous searches.
+	 * 
+	 * @param cellCount the amount of columns or rows in the Grid
+	 */
+	private void prepareSearch(int cellCount) {
+		if (cellCount != searchCellCount) {
+			int cells = cellCount * cellCount;
+			searchCellCount = cellCount;
+			gCosts = new int[cells];
+			previousCells = new int[cells];
+			generations = new int[cells];
+			generation = 0;
+			closedCells = new BitSet(cells);
+			openCells = new IntMinHeap(cells);
+		}
+
+		generation++;
+		closedCells.clear();
+		openCells.clear();
+	}
+
+	private int getGCost(int cell) {
+		return generations[cell] == generation ? gCosts[cell] : Integer.MAX_VALUE;
+	}
+
+	private void setGCost(int cell, int gCost, int previousCell) {
+		gCosts[cell] = gCost;
+		previousCells[cell] = previousCell;
+		generations[cell] = generation;
+	}
+
+	/**
+	 * Creates the key open cells are ordered by - Lowest FCost first, lowest HCost
+	 * if the FCosts are the same.
+	 */
+	private static long createKey(int fCost, int hCost) {
+		return ((long) fCost << 32) | hCost;
+	}
+
 	/**
 	 * Finds all neighbours for a given GridNode. A GridNode may have 3, 5, or 8
 	 * neighbours, depending on where it is located in the Grid.
@@ -149,7 +324,7 @@ public class AStarPathfinding {
 	 * @param gn the GridNode for which all neighbours should be found
 	 * @return all neighbours in the Grid
 	 */
-	private List<GridNode> findNearbyNodes(GridNode gn) {
+	public List<GridNode> findNearbyNodes(GridNode gn) {
 		List<GridNode> nearbyList = new ArrayList<>();
 
 		if (gn.getX() - 1 >= 0) {
@@ -196,21 +371,18 @@ public class AStarPathfinding {
 	}
 
 	/**
-	 * Traces back a found path by traversing through all previous Nodes of a given
-	 * GridNode.
+	 * Traces back a found path by traversing through all previous cells of a given
+	 * cell.
 	 * 
-	 * @param endNode the final GridNode of a found path
+	 * @param endCell   the final cell of a found path
+	 * @param cellCount the amount of columns or rows in the Grid
 	 * @return a list of all GridNodes that a part of the found path
 	 */
-	private static List<GridNode> calculatePath(GridNode endNode) {
+	private List<GridNode> calculatePath(int endCell, int cellCount) {
 		List<GridNode> path = new ArrayList<>();
-		path.add(endNode);
-
-		GridNode currentNode = endNode;
 
-		while (currentNode.getPreviousNode() != null) {
-			path.add(currentNode.getPreviousNode());
-			currentNode = currentNode.getPreviousNode();
+		for (int cell = endCell; cell >= 0; cell = previousCells[cell]) {
+			path.add(grid.getNode(cell % cellCount, cell / cellCount));
 		}
 
 		// Reverse, since path is calculated backwards
@@ -227,29 +399,13 @@ public class AStarPathfinding {
 	 * @return the effective cost of traversing the Grid between A and B
 	 */
 	public static int calculateDistanceCost(GridNode a, GridNode b) {
-		int xDistance = Math.abs(a.getX() - b.getX());
-		int yDistance = Math.abs(a.getY() - b.getY());
-		int remaining = Math.abs(xDistance - yDistance);
-		return MOVE_DIAGONAL_COST * Math.min(xDistance, yDistance) + MOVE_STRAIGHT_COST * remaining;
+		return calculateDistanceCost(a.getX(), a.getY(), b.getX(), b.getY());
 	}
 
-	/**
-	 * Finds the GridNode with the lowest FCost from a list of GridNodes. Naive
-	 * implementation, runtime is in O(n).
-	 * 
-	 * @param gridNodeList a list of GridNodes where the GridNode with the lowest
-	 *                     FCost should be found
-	 * @return the GridNode with the lowest FCost
-	 */
-	private static GridNode findLowestFCostNode(List<GridNode> gridNodeList) {
-
-		GridNode lowestFCostNode = gridNodeList.get(0);
-		for (int i = 1; i < gridNodeList.size(); i++) {
-			if (gridNodeList.get(i).getFCost() < lowestFCostNode.getFCost()) {
-				lowestFCostNode = gridNodeList.get(i);
-			}
-		}
-
-		return lowestFCostNode;
+	private static int calculateDistanceCost(int aX, int aY, int bX, int bY) {
+		int xDistance = Math.abs(aX - bX);
+		int yDistance = Math.abs(aY - bY);
+		int remaining = Math.abs(xDistance - yDistance);
+		return MOVE_DIAGONAL_COST * Math.min(xDistance, yDistance) + MOVE_STRAIGHT_COST * remaining;
 	}
 }
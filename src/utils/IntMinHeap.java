@@ -0,0 +1,133 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * The AntVi IntMinHeap class - A binary min-heap of int elements (e.g. cell
+ * indices) from a fixed range, ordered by a long key per element. It supports
+ * decreasing the key of an element that is already part of the heap. All
+ * operations except clear() run in O(log n) or better and don't allocate.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public class IntMinHeap {
+
+	private int[] heap;
+	private long[] keys;
+	private int[] positions;
+	private int size;
+
+	/**
+	 * Creates an empty heap for the elements 0 to capacity - 1.
+	 *
+	 * @param capacity the amount of possible elements
+	 */
+	public IntMinHeap(int capacity) {
+		heap = new int[capacity];
+		keys = new long[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Adds an element to the heap, or changes its key if it is already part of the
+	 * heap and the new key is smaller.
+	 *
+	 * @param element the element
+	 * @param key     the key the heap is ordered by
+	 */
+	public void addOrDecrease(int element, long key) {
+		int position = positions[element];
+		if (position < 0) {
+			position = size++;
+			heap[position] = element;
+			positions[element] = position;
+		} else if (key >= keys[element]) {
+			return;
+		}
+		keys[element] = key;
+		siftUp(position);
+	}
+
+	/**
+	 * Removes the element with the smallest key from the heap.
+	 *
+	 * @return the element with the smallest key
+	 */
+	public int poll() {
+		int first = heap[0];
+		positions[first] = -1;
+
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			positions[heap[0]] = 0;
+			siftDown(0);
+		}
+		return first;
+	}
+
+	public boolean contains(int element) {
+		return positions[element] >= 0;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all elements from the heap. Runs in O(size).
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			positions[heap[i]] = -1;
+		}
+		size = 0;
+	}
+
+	private void siftUp(int position) {
+		int element = heap[position];
+		long key = keys[element];
+
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			int parentElement = heap[parent];
+			if (keys[parentElement] <= key) {
+				break;
+			}
+			heap[position] = parentElement;
+			positions[parentElement] = position;
+			position = parent;
+		}
+		heap[position] = element;
+		positions[element] = position;
+	}
+
+	private void siftDown(int position) {
+		int element = heap[position];
+		long key = keys[element];
+		int half = size >>> 1;
+
+		while (position < half) {
+			int child = 2 * position + 1;
+			int right = child + 1;
+			if (right < size && keys[heap[right]] < keys[heap[child]]) {
+				child = right;
+			}
+			int childElement = heap[child];
+			if (key <= keys[childElement]) {
+				break;
+			}
+			heap[position] = childElement;
+			positions[childElement] = position;
+			position = child;
+		}
+		heap[position] = element;
+		positions[element] = position;
+	}
+}
@@ -0,0 +1,43 @@
+package view;
+
+import grid.GridSnapshot;
+import model.AntSnapshot;
+
+/**
+ * The AntVi FrameSnapshot class - Everything needed to draw one frame: a
+ * GridSnapshot and an AntSnapshot taken between the same two model ticks. The
+ * simulation thread fills one FrameSnapshot while the render thread draws
+ * another one, a third one is handed over between them. Since a FrameSnapshot
+ * is only ever used by one of the threads at a time, neither of them needs to
+ * lock anything to use it.
+ *
+ * @author Max Ehringhausen
+ *
+ */
+public final class FrameSnapshot {
+
+	private final GridSnapshot gridSnapshot = new GridSnapshot();
+	private final AntSnapshot antSnapshot = new AntSnapshot();
+	private long sequence;
+
+	public GridSnapshot getGridSnapshot() {
+		return gridSnapshot;
+	}
+
+	public AntSnapshot getAntSnapshot() {
+		return antSnapshot;
+	}
+
+	/**
+	 * Gets the number of this frame - Frames filled later have higher numbers.
+	 *
+	 * @return the sequence number, 0 if the frame was never filled
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	public void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+}
@@ -36,6 +36,8 @@ public class SettingsWindow {
 	private List<PropertyChangeListener> listeners = new ArrayList<>();
 
 	private JFrame frame;
+	private JLabel modelTicksLabel;
+	private JLabel foodGatheredLabel;
 	private String title;
 	private int width;
 	private int height;
@@ -222,32 +224,16 @@ public class SettingsWindow {
 
 		mainPanel.add(antCountInput);
 
-		// Model ticks label
-		JLabel modelTicksLabel = new JLabel("0", SwingConstants.CENTER);
+		// Model ticks label, updated once per frame by the Controller
+		modelTicksLabel = new JLabel("0", SwingConstants.CENTER);
 		modelTicksLabel.setBorder(BorderFactory.createTitledBorder("Model Ticks:"));
 		modelTicksLabel.setPreferredSize(new Dimension(width / 3 - 10, 50));
-		controller.getModel().addChangeListener(new PropertyChangeListener() {
-
-			public void propertyChange(PropertyChangeEvent e) {
-				if ("ModelTicks".equals(e.getPropertyName())) {
-					modelTicksLabel.setText(String.format("%s", e.getNewValue()));
-				}
-			}
-		});
 		mainPanel.add(modelTicksLabel);
 
-		// Food gathered label
-		JLabel foodGatheredLabel = new JLabel("0", SwingConstants.CENTER);
+		// Food gathered label, updated once per frame by the Controller
+		foodGatheredLabel = new JLabel("0", SwingConstants.CENTER);
 		foodGatheredLabel.setBorder(BorderFactory.createTitledBorder("Food Gathered:"));
 		foodGatheredLabel.setPreferredSize(new Dimension(width / 3 - 10, 50));
-		controller.getModel().addChangeListener(new PropertyChangeListener() {
-
-			public void propertyChange(PropertyChangeEvent e) {
-				if ("FoodGathered".equals(e.getPropertyName())) {
-					foodGatheredLabel.setText(String.format("%s", e.getNewValue()));
-				}
-			}
-		});
 		mainPanel.add(foodGatheredLabel);
 
 		// Play/Pause Button
@@ -352,6 +338,58 @@ public class SettingsWindow {
 		});
 		mainPanel.add(toggleDissipationButton);
 
+		// Render frame rate slider
+		JSlider framesPerSecondSlider = new JSlider(1, 60, 60);
+		framesPerSecondSlider.setBorder(BorderFactory.createTitledBorder("Render Frames/s: 60"));
+		framesPerSecondSlider.setPreferredSize(new Dimension(width - 30, 50));
+		framesPerSecondSlider.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent e) {
+
+				framesPerSecondSlider.setBorder(BorderFactory
+						.createTitledBorder(String.format("Render Frames/s: %s", framesPerSecondSlider.getValue())));
+
+				if (!framesPerSecondSlider.getValueIsAdjusting()) {
+					notifyListeners(this, "FramesPerSecondChanged", null, framesPerSecondSlider.getValue());
+				}
+			}
+		});
+		mainPanel.add(framesPerSecondSlider);
+
+		// Toggle turbo mode Button
+		JButton toggleTurboButton = new JButton("Enable Turbo");
+		toggleTurboButton.setPreferredSize(new Dimension(width - 30, 60));
+		toggleTurboButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+
+				if ("Enable Turbo".equals(toggleTurboButton.getText())) {
+
+					// Run the simulation as fast as possible, the speed slider has no effect
+					notifyListeners(this, "TurboChanged", null, true);
+					toggleTurboButton.setText("Disable Turbo");
+					modelSpeedSlider.setEnabled(false);
+
+				} else {
+
+					notifyListeners(this, "TurboChanged", null, false);
+					toggleTurboButton.setText("Enable Turbo");
+					modelSpeedSlider.setEnabled(true);
+				}
+			}
+		});
+		mainPanel.add(toggleTurboButton);
+
+	}
+
+	/**
+	 * Shows the amount of model ticks and gathered food - Must be called on the
+	 * event dispatch thread.
+	 * 
+	 * @param modelTicks   the amount of ticks since the last reset
+	 * @param foodGathered the amount of food gathered since the last reset
+	 */
+	public void showCounters(int modelTicks, int foodGathered) {
+		modelTicksLabel.setText(String.format("%s", modelTicks));
+		foodGatheredLabel.setText(String.format("%s", foodGathered));
 	}
 
 	public JFrame getFrame() {